@@ -1,11 +1,14 @@
 package com.plugin.gitmultimerge.command;
 
+import com.intellij.dvcs.DvcsUtil;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.ActionUpdateThread;
 import com.intellij.openapi.actionSystem.Presentation;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
+import com.plugin.gitmultimerge.service.GitRepositoryPresence;
 import com.plugin.gitmultimerge.util.MessageBundle;
 import com.plugin.gitmultimerge.util.NotificationHelper;
 import git4idea.repo.GitRepository;
@@ -13,11 +16,17 @@ import git4idea.repo.GitRepositoryManager;
 import com.plugin.gitmultimerge.ui.GitMultiMergeDialog;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Action responsible for opening the Git Multi Merge dialog in the IntelliJ UI.
  * Ensures the action is only available when a valid Git repository is present.
+ * The update runs in the background and reads a cached repository-presence flag,
+ * since the action is registered in several menus and toolbars.
  */
 public class GitMultiMergeAction extends AnAction implements DumbAware {
+    private static final Logger LOG = Logger.getInstance(GitMultiMergeAction.class);
 
     /**
      * Default constructor.
@@ -28,7 +37,7 @@ public class GitMultiMergeAction extends AnAction implements DumbAware {
 
     @Override
     public @NotNull ActionUpdateThread getActionUpdateThread() {
-        return ActionUpdateThread.EDT;
+        return ActionUpdateThread.BGT;
     }
 
     @Override
@@ -36,6 +45,7 @@ public class GitMultiMergeAction extends AnAction implements DumbAware {
         Project project = e.getProject();
         if (project == null)
             return;
+        long start = System.nanoTime();
 
         GitRepositoryManager repositoryManager = GitRepositoryManager.getInstance(project);
 
@@ -47,18 +57,21 @@ public class GitMultiMergeAction extends AnAction implements DumbAware {
             return;
         }
 
-        GitRepository repository = repositoryManager.getRepositories().get(0);
+        // All roots are offered; the dialog lets the user pick which ones to merge
+        List<GitRepository> repositories = DvcsUtil.sortRepositories(repositoryManager.getRepositories());
 
         // Isolando a criação do diálogo para facilitar testes e extensões
-        GitMultiMergeDialog dialog = createDialog(project, repository);
+        GitMultiMergeDialog dialog = createDialog(project, repositories);
+        LOG.info("Git Multi Merge dialog created in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
         dialog.showAndGet();
     }
 
     /**
      * Factory method for creating the dialog. Can be overridden for testing.
      */
-    protected GitMultiMergeDialog createDialog(Project project, GitRepository repository) {
-        return new GitMultiMergeDialog(project, repository);
+    protected GitMultiMergeDialog createDialog(Project project, List<GitRepository> repositories) {
+        return new GitMultiMergeDialog(project, repositories);
     }
 
     @Override
@@ -73,8 +86,11 @@ public class GitMultiMergeAction extends AnAction implements DumbAware {
             return;
         }
 
-        GitRepositoryManager repositoryManager = GitRepositoryManager.getInstance(project);
-        boolean hasGitRepositories = !repositoryManager.getRepositories().isEmpty();
-        presentation.setEnabledAndVisible(hasGitRepositories);
+        long start = System.nanoTime();
+        presentation.setEnabledAndVisible(GitRepositoryPresence.getInstance(project).hasRepositories());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Git Multi Merge action updated in "
+                    + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) + " us");
+        }
     }
 }
\ No newline at end of file
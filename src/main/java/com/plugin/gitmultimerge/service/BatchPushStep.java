@@ -0,0 +1,153 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
+import com.plugin.gitmultimerge.util.MessageBundle;
+import com.plugin.gitmultimerge.util.NotificationHelper;
+import git4idea.commands.GitCommandResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Etapa que envia todas as targets mescladas, e opcionalmente a remoção da
+ * branch source remota, num único git push. O estado de cada ref é lido da
+ * saída --porcelain e refletido nas listas de sucesso e falha. As targets novas
+ * no remote passam a rastrear a branch remota depois do push, em vez de -u.
+ */
+public class BatchPushStep {
+    private static final Logger LOG = Logger.getInstance(BatchPushStep.class);
+    private static final String HEADS_PREFIX = "refs/heads/";
+
+    private final GitRepositoryOperations service;
+    private final boolean atomic;
+
+    /**
+     * Construtor padrão.
+     *
+     * @param service Serviço de operações Git.
+     * @param atomic  Se true, usa --atomic: uma ref rejeitada impede todas as outras.
+     */
+    public BatchPushStep(GitRepositoryOperations service, boolean atomic) {
+        this.service = service;
+        this.atomic = atomic;
+    }
+
+    /**
+     * Executa o push em lote.
+     *
+     * @param context            Contexto da branch source.
+     * @param result             Resultado acumulado das targets.
+     * @param deleteRemoteSource Se true, inclui a remoção da branch source remota.
+     * @return true se todas as refs enviadas foram aceitas pelo remote.
+     */
+    boolean execute(MergeContext context, MergeRunResult result, boolean deleteRemoteSource) {
+        List<String> rejected = pushBranches(context, new ArrayList<>(result.allPendingPushes), deleteRemoteSource);
+        for (String branch : rejected) {
+            result.markPushFailed(branch);
+        }
+        return rejected.isEmpty();
+    }
+
+    /**
+     * Envia as branches informadas num único git push e notifica as rejeições.
+     *
+     * @param context            Contexto da branch source.
+     * @param branches           Branches a enviar.
+     * @param deleteRemoteSource Se true, inclui a remoção da branch source remota.
+     * @return Branches rejeitadas; ":source" indica que a remoção não foi aplicada.
+     */
+    List<String> pushBranches(MergeContext context, List<String> branches, boolean deleteRemoteSource) {
+        if (branches.isEmpty() && !deleteRemoteSource) {
+            return List.of();
+        }
+
+        // Sem -u: aplicado ao push inteiro, trocaria o upstream das targets existentes
+        // que rastreiam outra branch. O upstream das targets novas é definido depois.
+        List<String> refspecs = new ArrayList<>();
+        Set<String> newBranches = new HashSet<>();
+        for (String branch : branches) {
+            refspecs.add(HEADS_PREFIX + branch + ":" + HEADS_PREFIX + branch);
+            if (!context.refs.hasRemoteBranch(branch)) {
+                newBranches.add(branch);
+            }
+        }
+        if (deleteRemoteSource) {
+            refspecs.add(":" + HEADS_PREFIX + context.sourceBranch);
+        }
+
+        context.indicator.setText2(MessageBundle.message("progress.pushing", refspecs.size()));
+        GitCommandResult pushResult = service.pushRefs(context.repository, refspecs, atomic);
+        Map<String, Boolean> refStatus = parsePorcelain(pushResult.getOutput());
+
+        List<String> rejected = new ArrayList<>();
+        List<String> created = new ArrayList<>();
+        for (String branch : branches) {
+            if (!refStatus.getOrDefault(branch, false)) {
+                rejected.add(branch);
+            } else if (newBranches.contains(branch)) {
+                created.add(branch);
+            } else {
+                context.refs.remoteUpdated(branch, context.refs.localHead(branch), false);
+            }
+        }
+        if (!created.isEmpty()) {
+            GitCommandResult upstreamResult = service.setUpstream(context.repository, created);
+            if (!upstreamResult.success()) {
+                LOG.warn("Unable to set upstream for " + created + ": "
+                        + upstreamResult.getErrorOutputAsJoinedString());
+            }
+            for (String branch : created) {
+                context.refs.remoteUpdated(branch, context.refs.localHead(branch), upstreamResult.success());
+            }
+        }
+        if (deleteRemoteSource) {
+            if (refStatus.getOrDefault(context.sourceBranch, false)) {
+                context.refs.remoteDeleted(context.sourceBranch);
+            } else {
+                rejected.add(":" + context.sourceBranch);
+            }
+        }
+
+        if (!rejected.isEmpty()) {
+            NotificationHelper.notifyError(
+                    context.project,
+                    NotificationHelper.DEFAULT_TITLE,
+                    MessageBundle.message("error.push", String.join(", ", rejected),
+                            pushResult.getErrorOutputAsJoinedString()));
+        }
+        return rejected;
+    }
+
+    /**
+     * Lê as linhas "&lt;flag&gt;\t&lt;from&gt;:&lt;to&gt;\t&lt;resumo&gt;" do git push --porcelain.
+     * A flag '!' indica rejeição; as demais (' ', '+', '-', '*', '=') indicam sucesso.
+     *
+     * @return Mapa do nome curto da branch remota para o estado de aceitação.
+     */
+    static Map<String, Boolean> parsePorcelain(List<String> output) {
+        Map<String, Boolean> status = new HashMap<>();
+        for (String line : output) {
+            String[] parts = line.split("\t");
+            if (parts.length < 2) {
+                continue;
+            }
+            String flag = parts[0].trim();
+            String refspec = parts[1];
+            int separator = refspec.indexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            String destination = refspec.substring(separator + 1);
+            if (!destination.startsWith(HEADS_PREFIX)) {
+                continue;
+            }
+            status.put(destination.substring(HEADS_PREFIX.length()), !flag.equals("!"));
+        }
+        return status;
+    }
+}
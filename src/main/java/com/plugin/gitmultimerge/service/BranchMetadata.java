@@ -0,0 +1,15 @@
+package com.plugin.gitmultimerge.service;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Informações de uma branch local exibidas na árvore de targets.
+ *
+ * @param branch     Nome da branch.
+ * @param sha        Hash do último commit da branch.
+ * @param commitTime Data do último commit, em segundos desde a época.
+ * @param behind     Commits da source que faltam na branch, ou -1 se não foi
+ *                   possível calcular (git anterior a 2.41).
+ */
+public record BranchMetadata(@NotNull String branch, @NotNull String sha, long commitTime, int behind) {
+}
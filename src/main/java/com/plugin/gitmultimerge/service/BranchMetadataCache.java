@@ -0,0 +1,91 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.vcs.log.Hash;
+import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
+import git4idea.GitLocalBranch;
+import git4idea.repo.GitBranchesCollection;
+import git4idea.repo.GitRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache das informações das branches, indexado pelos hashes dos commits. Como um
+ * hash identifica um conteúdo imutável, os valores nunca ficam desatualizados:
+ * uma branch que avançou simplesmente tem outro hash. Assim, repintar a árvore ou
+ * voltar a uma source já consultada não executa novos processos git.
+ */
+final class BranchMetadataCache {
+    /**
+     * Acima deste número de entradas, somando as datas e as contagens de todas as
+     * sources consultadas, o cache é esvaziado, para limitar a memória.
+     */
+    private static final int MAX_ENTRIES = 200_000;
+
+    private final Map<String, Long> commitTimes = new ConcurrentHashMap<>();
+    /** Commits em falta, pela chave "hash da source:hash da target". */
+    private final Map<String, Integer> behindCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Informações das branches locais do repositório em relação à source. Usa os
+     * hashes já conhecidos pela IDE para consultar o cache; só executa o git
+     * (uma única chamada de for-each-ref) se algum valor estiver em falta.
+     *
+     * @param repository   Repositório Git alvo.
+     * @param sourceBranch Branch source; se for null ou não existir no repositório,
+     *                     os commits em falta ficam como -1.
+     * @param gitOps       Operações Git usadas quando o cache não basta.
+     * @return Informações de cada branch local.
+     */
+    @NotNull
+    List<BranchMetadata> get(@NotNull GitRepository repository, @Nullable String sourceBranch,
+            @NotNull GitRepositoryOperations gitOps) {
+        GitBranchesCollection branches = repository.getBranches();
+        GitLocalBranch source = sourceBranch == null ? null : branches.findLocalBranch(sourceBranch);
+        Hash sourceHash = source == null ? null : branches.getHash(source);
+        String sourceSha = sourceHash == null ? null : sourceHash.asString();
+
+        List<BranchMetadata> cached = new ArrayList<>();
+        for (GitLocalBranch branch : branches.getLocalBranches()) {
+            Hash hash = branches.getHash(branch);
+            BranchMetadata metadata = hash == null ? null : lookup(branch.getName(), hash.asString(), sourceSha);
+            if (metadata == null) {
+                cached = null;
+                break;
+            }
+            cached.add(metadata);
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        List<BranchMetadata> read = gitOps.readBranchMetadata(repository, sourceSha);
+        if (commitTimes.size() + behindCounts.size() + 2 * read.size() > MAX_ENTRIES) {
+            commitTimes.clear();
+            behindCounts.clear();
+        }
+        for (BranchMetadata metadata : read) {
+            commitTimes.put(metadata.sha(), metadata.commitTime());
+            behindCounts.put(key(sourceSha, metadata.sha()), metadata.behind());
+        }
+        return read;
+    }
+
+    @Nullable
+    private BranchMetadata lookup(String branch, String sha, @Nullable String sourceSha) {
+        Long commitTime = commitTimes.get(sha);
+        Integer behind = behindCounts.get(key(sourceSha, sha));
+        if (commitTime == null || behind == null) {
+            return null;
+        }
+        return new BranchMetadata(branch, sha, commitTime, behind);
+    }
+
+    private static String key(@Nullable String sourceSha, String sha) {
+        return (sourceSha == null ? "" : sourceSha) + ":" + sha;
+    }
+}
@@ -0,0 +1,71 @@
+package com.plugin.gitmultimerge.service;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Operações sobre listas de caminhos relativos à raiz do repositório, no
+ * formato devolvido pelo git (separador '/').
+ */
+final class ChangedPaths {
+    private ChangedPaths() {
+    }
+
+    /**
+     * Diretórios que contêm os arquivos informados, sem os já cobertos por um
+     * diretório pai da lista. Arquivos na raiz não geram diretório.
+     *
+     * @param files Caminhos dos arquivos.
+     * @return Diretórios em ordem alfabética.
+     */
+    static @NotNull Set<String> directoriesOf(@NotNull Collection<String> files) {
+        List<String> directories = new ArrayList<>();
+        for (String file : files) {
+            int slash = file.lastIndexOf('/');
+            if (slash > 0) {
+                directories.add(file.substring(0, slash));
+            }
+        }
+        // Os pais vêm antes dos filhos na ordenação, que são então descartados
+        Collections.sort(directories);
+        Set<String> result = new LinkedHashSet<>();
+        for (String directory : directories) {
+            if (!isCoveredBy(result, directory)) {
+                result.add(directory);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Primeiro nível de cada caminho: o diretório de topo, ou o próprio arquivo
+     * quando está na raiz.
+     *
+     * @param paths Caminhos de arquivos ou diretórios.
+     * @return Caminhos de topo, sem repetições.
+     */
+    static @NotNull Set<String> topLevelOf(@NotNull Collection<String> paths) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String path : paths) {
+            int slash = path.indexOf('/');
+            result.add(slash > 0 ? path.substring(0, slash) : path);
+        }
+        return result;
+    }
+
+    /** Se o diretório ou um dos seus pais já está no conjunto. */
+    private static boolean isCoveredBy(Set<String> directories, String directory) {
+        for (int slash = directory.length(); slash > 0; slash = directory.lastIndexOf('/', slash - 1)) {
+            if (directories.contains(directory.substring(0, slash))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
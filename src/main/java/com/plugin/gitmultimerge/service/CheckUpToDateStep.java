@@ -22,6 +22,11 @@ public class CheckUpToDateStep implements MergeStep {
 
     @Override
     public StepResult execute(MergeContext context) {
+        // O planejamento já excluiu as targets atualizadas; sem sincronização posterior
+        // o resultado não pode ter mudado.
+        if (context.targetSynced && context.targetPlan != null) {
+            return StepResult.SUCCESS;
+        }
         boolean branchAlreadyUpToDate = service.isTargetUpToDateWithSource(
                 context.repository, context.targetBranch, context.sourceBranch);
         if (branchAlreadyUpToDate) {
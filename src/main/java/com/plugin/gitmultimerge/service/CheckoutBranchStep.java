@@ -27,6 +27,7 @@ public class CheckoutBranchStep implements MergeStep {
         }
         GitCommandResult checkoutResult = service.checkout(context.repository, context.targetBranch);
         if (checkoutResult.success()) {
+            context.atualBranch = context.targetBranch;
             return StepResult.SUCCESS;
         }
 
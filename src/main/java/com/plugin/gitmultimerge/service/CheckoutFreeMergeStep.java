@@ -0,0 +1,68 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
+import com.plugin.gitmultimerge.service.interfaces.MergeStep;
+import git4idea.commands.GitCommandResult;
+
+/**
+ * Etapa que executa o merge da branch source para a target sem checkout,
+ * trabalhando apenas na base de objetos. Recorre ao checkout e ao merge
+ * tradicional quando há conflitos a resolver.
+ */
+public class CheckoutFreeMergeStep implements MergeStep {
+    private static final Logger LOG = Logger.getInstance(CheckoutFreeMergeStep.class);
+
+    private final GitRepositoryOperations service;
+
+    /**
+     * Construtor padrão.
+     *
+     * @param service Serviço de operações Git.
+     */
+    public CheckoutFreeMergeStep(GitRepositoryOperations service) {
+        this.service = service;
+    }
+
+    @Override
+    public StepResult execute(MergeContext context) {
+        if (context.targetBranch.equals(context.atualBranch)) {
+            // A branch em checkout não pode ser movida sem atualizar o working tree.
+            return new PerformMergeStep(service).execute(context);
+        }
+
+        GitCommandResult mergeResult = service.mergeWithoutCheckout(
+                context.repository,
+                context.sourceBranch,
+                context.targetBranch,
+                context.squash,
+                context.commitMessage);
+        if (mergeResult.success()) {
+            context.successfulMerges.add(context.targetBranch);
+            context.refs.localUpdated(context.targetBranch, null);
+            return StepResult.SUCCESS;
+        }
+
+        // Conflito (ou git sem merge-tree --write-tree): repete o merge no working tree
+        LOG.info("Checkout-free merge of " + context.sourceBranch + " into " + context.targetBranch
+                + " not possible, falling back to checkout: " + mergeResult.getErrorOutputAsJoinedString());
+        StepResult checkoutResult = new CheckoutBranchStep(service).execute(context);
+        if (checkoutResult != StepResult.SUCCESS) {
+            return checkoutResult;
+        }
+        return new PerformMergeStep(service).execute(context);
+    }
+
+    @Override
+    public StepResult failure(MergeContext context) {
+        context.allSuccessful = false;
+        context.failedMerges.add(context.targetBranch);
+        return StepResult.SKIPPED;
+    }
+
+    @Override
+    public void success(MergeContext context) {
+        context.successfulMerges.add(context.targetBranch);
+        context.refs.localUpdated(context.targetBranch, null);
+    }
+}
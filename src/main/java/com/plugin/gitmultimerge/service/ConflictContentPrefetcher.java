@@ -0,0 +1,97 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
+import git4idea.repo.GitRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Lê em background os conteúdos de base, ours e theirs dos próximos arquivos em
+ * conflito enquanto o usuário resolve o atual, para que a janela de merge seguinte
+ * abra sem esperar pelo git. Só os próximos {@link #PREFETCH_AHEAD} arquivos são
+ * lidos antecipadamente, para limitar a memória usada com muitos conflitos.
+ */
+class ConflictContentPrefetcher implements AutoCloseable {
+    private static final Logger LOG = Logger.getInstance(ConflictContentPrefetcher.class);
+    /** Arquivos lidos à frente do que está sendo resolvido. */
+    private static final int PREFETCH_AHEAD = 3;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final GitRepositoryOperations gitOps;
+    private final GitRepository repository;
+    private final List<ConflictedFile> conflicts;
+    private final List<Future<List<byte[]>>> futures;
+    private final ExecutorService executor;
+
+    ConflictContentPrefetcher(@NotNull GitRepositoryOperations gitOps, @NotNull GitRepository repository,
+            @NotNull List<ConflictedFile> conflicts) {
+        this.gitOps = gitOps;
+        this.repository = repository;
+        this.conflicts = conflicts;
+        this.futures = new ArrayList<>(conflicts.size());
+        this.executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+                "GitMultiMerge.ConflictPrefetch", PREFETCH_AHEAD);
+    }
+
+    /**
+     * Conteúdos do arquivo informado, aguardando a leitura se ainda estiver em
+     * curso, e agenda a leitura dos arquivos seguintes.
+     *
+     * @param index Posição do arquivo na lista de conflitos.
+     * @return Conteúdos de base, ours e theirs (vazios para estágios ausentes), ou
+     *         null se algum blob não pôde ser lido.
+     */
+    @Nullable
+    List<byte[]> get(int index) {
+        for (int i = futures.size(); i < Math.min(conflicts.size(), index + 1 + PREFETCH_AHEAD); i++) {
+            ConflictedFile conflict = conflicts.get(i);
+            futures.add(executor.submit(() -> load(conflict)));
+        }
+        Future<List<byte[]>> future = futures.get(index);
+        // Libera a referência: o conteúdo de arquivos já resolvidos não fica em memória
+        futures.set(index, null);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        } catch (ExecutionException e) {
+            LOG.warn("Unable to prefetch " + conflicts.get(index).path(), e.getCause());
+            return null;
+        }
+    }
+
+    @Nullable
+    private List<byte[]> load(ConflictedFile conflict) {
+        byte[] base = readBlob(conflict.baseBlob());
+        byte[] ours = readBlob(conflict.oursBlob());
+        byte[] theirs = readBlob(conflict.theirsBlob());
+        if (base == null || ours == null || theirs == null) {
+            return null;
+        }
+        return List.of(base, ours, theirs);
+    }
+
+    private byte @Nullable [] readBlob(@Nullable String sha) {
+        return sha == null ? EMPTY : gitOps.readBlob(repository, sha);
+    }
+
+    @Override
+    public void close() {
+        for (Future<List<byte[]>> future : futures) {
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,167 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.vcs.log.Hash;
+import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
+import git4idea.GitLocalBranch;
+import git4idea.repo.GitBranchesCollection;
+import git4idea.repo.GitRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Prevê o resultado do merge da source em cada target com merges de teste sem
+ * checkout, executados em paralelo. Os resultados ficam em cache pelo par
+ * (hash da source, hash da target), então repetir a previsão ou reabrir o
+ * diálogo só calcula os pares novos.
+ */
+final class ConflictPredictor {
+    private static final Logger LOG = Logger.getInstance(ConflictPredictor.class);
+    private static final long AWAIT_STEP_MS = 100;
+    /** Acima deste número de pares o cache é esvaziado, para limitar a memória. */
+    private static final int MAX_CACHED_PAIRS = 20_000;
+
+    private final GitRepositoryOperations gitOps;
+    private final Map<String, MergePrediction> cache = new ConcurrentHashMap<>();
+
+    ConflictPredictor(@NotNull GitRepositoryOperations gitOps) {
+        this.gitOps = gitOps;
+    }
+
+    /**
+     * Prevê o merge da source em cada target, em todos os repositórios onde ambas
+     * existem. Com vários repositórios, cada target fica com o resultado mais grave.
+     *
+     * @param repositories   Repositórios Git alvo.
+     * @param sourceBranch   Nome da branch source.
+     * @param targetBranches Branches target.
+     * @param maxParallel    Número máximo de merges de teste ao mesmo tempo.
+     * @param indicator      Indicador de progresso, consultado para cancelamento.
+     * @return Resultado por target, na ordem recebida.
+     */
+    @NotNull
+    Map<String, MergePrediction> predict(@NotNull List<GitRepository> repositories, @NotNull String sourceBranch,
+            @NotNull Collection<String> targetBranches, int maxParallel, @NotNull ProgressIndicator indicator) {
+        long start = System.nanoTime();
+        Map<String, List<MergePrediction>> byTarget = new LinkedHashMap<>();
+        Map<String, List<Future<MergePrediction>>> pending = new LinkedHashMap<>();
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+                "GitMultiMerge.Prediction", Math.max(1, maxParallel));
+        int cached = 0;
+        try {
+            for (GitRepository repository : repositories) {
+                GitBranchesCollection branches = repository.getBranches();
+                String sourceSha = shaOf(branches, sourceBranch);
+                if (sourceSha == null) {
+                    continue;
+                }
+                for (String target : targetBranches) {
+                    String targetSha = shaOf(branches, target);
+                    if (targetSha == null) {
+                        continue;
+                    }
+                    String key = sourceSha + ":" + targetSha;
+                    MergePrediction prediction = cache.get(key);
+                    if (prediction != null) {
+                        byTarget.computeIfAbsent(target, t -> new ArrayList<>()).add(prediction);
+                        cached++;
+                    } else {
+                        // Sob o indicador, o cancelamento encerra os git merge-tree em andamento
+                        pending.computeIfAbsent(target, t -> new ArrayList<>()).add(executor.submit(() -> {
+                            MergePrediction[] computed = { MergePrediction.UNKNOWN };
+                            ProgressManager.getInstance().executeProcessUnderProgress(
+                                    () -> computed[0] = gitOps.predictMerge(repository, sourceSha, targetSha),
+                                    indicator);
+                            if (computed[0].status() != MergePrediction.Status.UNKNOWN && !indicator.isCanceled()) {
+                                cache.put(key, computed[0]);
+                            }
+                            return computed[0];
+                        }));
+                    }
+                }
+            }
+            for (Map.Entry<String, List<Future<MergePrediction>>> entry : pending.entrySet()) {
+                for (Future<MergePrediction> future : entry.getValue()) {
+                    byTarget.computeIfAbsent(entry.getKey(), t -> new ArrayList<>()).add(await(future, indicator));
+                }
+            }
+        } finally {
+            for (List<Future<MergePrediction>> futures : pending.values()) {
+                futures.forEach(future -> future.cancel(false));
+            }
+            executor.shutdown();
+        }
+        if (cache.size() > MAX_CACHED_PAIRS) {
+            cache.clear();
+        }
+
+        Map<String, MergePrediction> results = new LinkedHashMap<>();
+        for (String target : targetBranches) {
+            List<MergePrediction> predictions = byTarget.get(target);
+            if (predictions != null) {
+                results.put(target, combine(predictions));
+            }
+        }
+        LOG.info("Predicted " + results.size() + " targets in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms (" + cached + " cached)");
+        return results;
+    }
+
+    /** O resultado mais grave, com os arquivos em conflito de todos os repositórios. */
+    private static MergePrediction combine(List<MergePrediction> predictions) {
+        if (predictions.size() == 1) {
+            return predictions.get(0);
+        }
+        MergePrediction.Status status = MergePrediction.Status.ALREADY_MERGED;
+        Set<String> files = new LinkedHashSet<>();
+        for (MergePrediction prediction : predictions) {
+            if (prediction.status().compareTo(status) > 0) {
+                status = prediction.status();
+            }
+            files.addAll(prediction.conflictedFiles());
+        }
+        return new MergePrediction(status, List.copyOf(files));
+    }
+
+    @Nullable
+    private static String shaOf(GitBranchesCollection branches, String branchName) {
+        GitLocalBranch branch = branches.findLocalBranch(branchName);
+        Hash hash = branch == null ? null : branches.getHash(branch);
+        return hash == null ? null : hash.asString();
+    }
+
+    private static MergePrediction await(Future<MergePrediction> future, ProgressIndicator indicator) {
+        while (true) {
+            indicator.checkCanceled();
+            try {
+                return future.get(AWAIT_STEP_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Continua a aguardar, verificando o cancelamento
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(e);
+            } catch (ExecutionException e) {
+                LOG.warn("Unexpected failure while predicting merge", e.getCause());
+                return MergePrediction.UNKNOWN;
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.plugin.gitmultimerge.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Arquivo em conflito (unmerged) no index, com os blobs de cada estágio.
+ * Um estágio ausente é null (ex.: arquivo adicionado nos dois lados não tem base).
+ *
+ * @param path       Caminho relativo à raiz do working tree.
+ * @param baseBlob   Blob do ancestral comum (estágio 1).
+ * @param oursBlob   Blob da branch atual (estágio 2).
+ * @param theirsBlob Blob da branch sendo mesclada (estágio 3).
+ */
+public record ConflictedFile(@NotNull String path, @Nullable String baseBlob, @Nullable String oursBlob,
+        @Nullable String theirsBlob) {
+}
@@ -3,7 +3,6 @@ package com.plugin.gitmultimerge.service;
 import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
 import com.plugin.gitmultimerge.util.MessageBundle;
 import com.plugin.gitmultimerge.util.NotificationHelper;
-import git4idea.GitRemoteBranch;
 import git4idea.commands.GitCommandResult;
 import git4idea.repo.GitRepositoryManager;
 
@@ -13,6 +12,7 @@ import git4idea.repo.GitRepositoryManager;
 public class DeleteSourceBranchStep {
     private final GitRepositoryOperations service;
     private final String originalBranch;
+    private final boolean deleteRemote;
 
     /**
      * Construtor padrão.
@@ -21,8 +21,20 @@ public class DeleteSourceBranchStep {
      * @param originalBranch Nome da branch original.
      */
     public DeleteSourceBranchStep(GitRepositoryOperations service, String originalBranch) {
+        this(service, originalBranch, true);
+    }
+
+    /**
+     * Construtor com controle da remoção remota.
+     *
+     * @param service        Serviço de operações Git.
+     * @param originalBranch Nome da branch original.
+     * @param deleteRemote   Se false, a branch remota já foi removida (ex.: no push em lote).
+     */
+    public DeleteSourceBranchStep(GitRepositoryOperations service, String originalBranch, boolean deleteRemote) {
         this.service = service;
         this.originalBranch = originalBranch;
+        this.deleteRemote = deleteRemote;
     }
 
     public boolean execute(MergeContext context) {
@@ -49,15 +61,19 @@ public class DeleteSourceBranchStep {
                 return false;
             }
         }
-        GitRemoteBranch remoteBranch = service.findRemoteBranch(context.repository, context.sourceBranch);
+        boolean remoteExists = deleteRemote && context.refs.hasRemoteBranch(context.sourceBranch);
         GitCommandResult deleteResult = service.deleteBranch(context.repository, context.sourceBranch);
         if (!deleteResult.success()) {
             return notifyWarning(deleteResult, context, "error.delete.local");
-        } else if (remoteBranch != null) {
-            GitCommandResult deleteRemoteResult = service.deleteRemoteBranch(context.repository, remoteBranch);
+        }
+        context.refs.localDeleted(context.sourceBranch);
+        if (remoteExists) {
+            GitCommandResult deleteRemoteResult = service.deleteRemoteBranch(context.repository,
+                    context.sourceBranch);
             if (!deleteRemoteResult.success()) {
                 return notifyWarning(deleteRemoteResult, context, "error.delete.remote");
             }
+            context.refs.remoteDeleted(context.sourceBranch);
         }
         return true;
     }
@@ -0,0 +1,232 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processo git cat-file --batch mantido aberto para um repositório. Cada consulta
+ * é uma ida e volta por stdin/stdout, sem criar um novo processo git.
+ * As consultas são serializadas; qualquer erro de I/O encerra o processo, assim
+ * como uma consulta que não termina em {@link #READ_TIMEOUT_SECONDS} segundos.
+ */
+class GitCatFileProcess {
+    /**
+     * Margem aplicada às datas de commit ao podar a busca de ancestralidade,
+     * para tolerar relógios dessincronizados entre quem criou os commits.
+     */
+    private static final long CLOCK_SKEW_SECONDS = TimeUnit.DAYS.toSeconds(1);
+    /** Tempo máximo de uma consulta, para que um git travado não prenda o lock. */
+    private static final long READ_TIMEOUT_SECONDS = 30;
+
+    private final Process process;
+    private final OutputStream stdin;
+    private final InputStream stdout;
+
+    private GitCatFileProcess(Process process) {
+        this.process = process;
+        this.stdin = new BufferedOutputStream(process.getOutputStream());
+        this.stdout = new BufferedInputStream(process.getInputStream());
+    }
+
+    /**
+     * Inicia o processo na raiz do repositório.
+     *
+     * @param gitExecutable Caminho do executável git configurado na IDE.
+     * @param root          Raiz do repositório.
+     */
+    static GitCatFileProcess start(@NotNull String gitExecutable, @NotNull File root) throws ExecutionException {
+        GeneralCommandLine commandLine = new GeneralCommandLine(gitExecutable, "cat-file", "--batch")
+                .withWorkDirectory(root);
+        commandLine.withEnvironment("GIT_TERMINAL_PROMPT", "0");
+        // O stderr nunca é lido: descartado, para que avisos não encham o pipe e travem o git
+        ProcessBuilder builder = commandLine.toProcessBuilder()
+                .redirectError(ProcessBuilder.Redirect.DISCARD);
+        try {
+            return new GitCatFileProcess(builder.start());
+        } catch (IOException e) {
+            throw new ExecutionException(e);
+        }
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * Resolve uma revisão para o hash do commit correspondente.
+     *
+     * @return Hash do commit, ou null se a revisão não existir.
+     */
+    synchronized @Nullable String resolveCommit(@NotNull String revision) throws IOException {
+        GitObject object = read(revision + "^{commit}");
+        return object != null ? object.sha : null;
+    }
+
+    /**
+     * Verifica se ancestor é alcançável a partir de descendant percorrendo os pais
+     * dos commits. Ramos com data de commit anterior à de ancestor (menos a margem
+     * de relógio) não são expandidos. Como rebases, cherry-picks e relógios errados
+     * quebram a ordem das datas, FALSE só é devolvido se nenhum ramo foi podado nem
+     * ficou sem ler (clones shallow ou parciais); senão a resposta é desconhecida.
+     *
+     * @param maxCommits Número máximo de commits lidos antes de desistir.
+     * @return TRUE ou FALSE, ou null se a busca não foi exaustiva e o chamador
+     *         deve usar o git merge-base.
+     */
+    synchronized @Nullable Boolean isAncestor(@NotNull String ancestor, @NotNull String descendant,
+            int maxCommits) throws IOException {
+        if (ancestor.equals(descendant)) {
+            return Boolean.TRUE;
+        }
+        Commit ancestorCommit = readCommit(ancestor);
+        if (ancestorCommit == null) {
+            return null;
+        }
+        long cutoff = ancestorCommit.commitTime - CLOCK_SKEW_SECONDS;
+
+        Set<String> visited = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(descendant);
+        visited.add(descendant);
+        boolean skipped = false;
+        while (!pending.isEmpty()) {
+            if (visited.size() > maxCommits) {
+                return null;
+            }
+            Commit commit = readCommit(pending.poll());
+            if (commit == null || commit.commitTime < cutoff) {
+                skipped = true;
+                continue;
+            }
+            for (String parent : commit.parents) {
+                if (parent.equals(ancestor)) {
+                    return Boolean.TRUE;
+                }
+                if (visited.add(parent)) {
+                    pending.add(parent);
+                }
+            }
+        }
+        return skipped ? null : Boolean.FALSE;
+    }
+
+    /**
+     * Lê o conteúdo de um blob.
+     *
+     * @return Conteúdo do blob, ou null se o objeto não existir ou não for um blob.
+     */
+    synchronized byte @Nullable [] readBlob(@NotNull String sha) throws IOException {
+        GitObject object = read(sha);
+        return object != null && "blob".equals(object.type) ? object.content : null;
+    }
+
+    /** Encerra o processo. */
+    synchronized void close() {
+        try {
+            stdin.close();
+        } catch (IOException ignored) {
+            // O processo é destruído a seguir
+        }
+        process.destroy();
+    }
+
+    private @Nullable Commit readCommit(@NotNull String sha) throws IOException {
+        GitObject object = read(sha);
+        if (object == null || !"commit".equals(object.type)) {
+            return null;
+        }
+        List<String> parents = new ArrayList<>();
+        long commitTime = 0;
+        // O cabeçalho do commit termina na primeira linha vazia
+        for (String line : new String(object.content, StandardCharsets.UTF_8).split("\n")) {
+            if (line.isEmpty()) {
+                break;
+            }
+            if (line.startsWith("parent ")) {
+                parents.add(line.substring("parent ".length()).trim());
+            } else if (line.startsWith("committer ")) {
+                commitTime = parseCommitTime(line);
+            }
+        }
+        return new Commit(parents, commitTime);
+    }
+
+    /** Lê a data do commit de "committer Nome &lt;email&gt; 1700000000 +0000". */
+    private static long parseCommitTime(String line) {
+        String[] parts = line.split(" ");
+        if (parts.length < 2) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(parts[parts.length - 2]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private @Nullable GitObject read(@NotNull String name) throws IOException {
+        // Encerrar o processo desbloqueia a leitura, que falha com EOF
+        ScheduledFuture<?> watchdog = AppExecutorUtil.getAppScheduledExecutorService()
+                .schedule(process::destroyForcibly, READ_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        try {
+            stdin.write((name + "\n").getBytes(StandardCharsets.UTF_8));
+            stdin.flush();
+
+            // "<sha> <tipo> <tamanho>" ou "<nome> missing"
+            String[] header = readLine().split(" ");
+            if (header.length != 3) {
+                return null;
+            }
+            int size = Integer.parseInt(header[2]);
+            byte[] content = stdout.readNBytes(size);
+            if (content.length != size || stdout.read() != '\n') {
+                throw new EOFException("Unexpected end of git cat-file output");
+            }
+            return new GitObject(header[0], header[1], content);
+        } catch (IOException | NumberFormatException e) {
+            close();
+            throw e instanceof IOException ioException ? ioException : new IOException(e);
+        } finally {
+            watchdog.cancel(false);
+        }
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = stdout.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("git cat-file exited");
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private record GitObject(String sha, String type, byte[] content) {
+    }
+
+    private record Commit(List<String> parents, long commitTime) {
+    }
+}
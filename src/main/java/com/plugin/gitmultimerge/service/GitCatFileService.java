@@ -0,0 +1,73 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import git4idea.config.GitExecutableManager;
+import git4idea.repo.GitRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantém um {@link GitCatFileProcess} aberto por repositório durante a vida do
+ * projeto. Os worktrees temporários compartilham o processo do repositório
+ * principal, que usa a mesma base de objetos e as mesmas branches; HEAD e o
+ * índice de cada worktree não são consultados por ele.
+ */
+@Service(Service.Level.PROJECT)
+public final class GitCatFileService implements Disposable {
+    private static final Logger LOG = Logger.getInstance(GitCatFileService.class);
+
+    private final Project project;
+    private final Map<VirtualFile, GitCatFileProcess> processes = new ConcurrentHashMap<>();
+    /** Repositórios onde o processo não pôde ser iniciado; usam sempre o git por comando. */
+    private final Set<VirtualFile> unavailable = ConcurrentHashMap.newKeySet();
+
+    public GitCatFileService(Project project) {
+        this.project = project;
+    }
+
+    public static GitCatFileService getInstance(@NotNull Project project) {
+        return project.getService(GitCatFileService.class);
+    }
+
+    /**
+     * Devolve o processo do repositório, iniciando-o ou reiniciando-o se necessário.
+     *
+     * @return Processo ativo, ou null se não puder ser iniciado.
+     */
+    @Nullable
+    GitCatFileProcess get(@NotNull GitRepository repository) {
+        VirtualFile root = repository.getRoot();
+        if (unavailable.contains(root)) {
+            return null;
+        }
+        return processes.compute(root, (key, current) -> {
+            if (current != null && current.isAlive()) {
+                return current;
+            }
+            try {
+                String gitExecutable = GitExecutableManager.getInstance().getPathToGit(project);
+                return GitCatFileProcess.start(gitExecutable, VfsUtilCore.virtualToIoFile(root));
+            } catch (ExecutionException e) {
+                LOG.warn("Unable to start git cat-file for " + root.getPath(), e);
+                unavailable.add(root);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void dispose() {
+        processes.values().forEach(GitCatFileProcess::close);
+        processes.clear();
+    }
+}
@@ -1,6 +1,8 @@
 package com.plugin.gitmultimerge.service;
 
+import com.intellij.dvcs.DvcsUtil;
 import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import com.plugin.gitmultimerge.exception.MultiMergeOperationException;
@@ -11,13 +13,17 @@ import com.plugin.gitmultimerge.util.NotificationHelper;
 import com.plugin.gitmultimerge.util.MessageBundle;
 import git4idea.GitLocalBranch;
 import git4idea.repo.GitRepository;
+import git4idea.repo.GitRepositoryManager;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import com.intellij.openapi.vcs.changes.ChangeListManager;
 import com.intellij.openapi.vfs.VirtualFile;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -27,12 +33,20 @@ import java.util.concurrent.CompletableFuture;
 @Service(Service.Level.PROJECT)
 public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
 
+    /** Targets aguardando push em background antes que o merge da próxima espere. */
+    private static final int PUSH_QUEUE_CAPACITY = 4;
+    /** Número de branches listadas por nome no resumo final. */
+    private static final int SUMMARY_MAX_BRANCHES = 30;
+
     private final Project project;
     private final GitRepositoryOperations gitOps;
+    private final BranchMetadataCache branchMetadataCache = new BranchMetadataCache();
+    private final ConflictPredictor conflictPredictor;
 
     public GitMultiMergeServiceImpl(Project project) {
         this.project = project;
         this.gitOps = new GitRepositoryOperationsImpl(project);
+        this.conflictPredictor = new ConflictPredictor(gitOps);
     }
 
     /**
@@ -53,6 +67,23 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
         return branchNames;
     }
 
+    @Override
+    public Map<String, BranchMetadata> getBranchMetadata(List<GitRepository> repositories, String sourceBranch) {
+        Map<String, BranchMetadata> metadata = new HashMap<>();
+        for (GitRepository repository : repositories) {
+            for (BranchMetadata branch : branchMetadataCache.get(repository, sourceBranch, gitOps)) {
+                metadata.putIfAbsent(branch.branch(), branch);
+            }
+        }
+        return metadata;
+    }
+
+    @Override
+    public Map<String, MergePrediction> predictMerges(List<GitRepository> repositories, String sourceBranch,
+            Collection<String> targetBranches, int maxParallel, ProgressIndicator indicator) {
+        return conflictPredictor.predict(repositories, sourceBranch, targetBranches, maxParallel, indicator);
+    }
+
     /**
      * Executa o merge da branch source para múltiplas branches target.
      * Opera de forma assíncrona e notifica o progresso.
@@ -84,8 +115,7 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
 
         // Executar a operação em background
         try {
-            // Iniciar uma tarefa em background
-            executeMultiMergeOperation(
+            MergeRunResult result = executeMultiMergeOperation(
                     repository,
                     sourceBranch,
                     targetBranches,
@@ -93,8 +123,13 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
                     pushAfterMerge,
                     deleteSourceBranch,
                     commitMessage,
-                    indicator,
-                    future);
+                    indicator);
+            if (result.failureMessage != null) {
+                NotificationHelper.notifyError(project, NotificationHelper.DEFAULT_TITLE, result.failureMessage);
+            } else {
+                notifySummary(result.allSuccessfulMerges, result.allFailedMerges, result.allSuccessful);
+            }
+            future.complete(result.failureMessage == null && result.allSuccessful);
         } catch (Exception e) {
             NotificationHelper.notifyError(project, NotificationHelper.DEFAULT_TITLE, e);
             future.complete(false);
@@ -104,10 +139,67 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
     }
 
     /**
-     * Executa a operação de multi-merge, delegando cada etapa para métodos
-     * auxiliar.
+     * Executa o mesmo merge em vários repositórios, em paralelo e de forma
+     * independente, e notifica um único resumo agrupado por repositório.
+     * Em cada repositório só são usadas as branches que nele existem.
      */
-    private void executeMultiMergeOperation(
+    @Override
+    public CompletableFuture<Boolean> performMerge(
+            List<GitRepository> repositories,
+            String sourceBranch,
+            List<String> targetBranches,
+            boolean squash,
+            boolean pushAfterMerge,
+            boolean deleteSourceBranch,
+            String commitMessage,
+            ProgressIndicator indicator) {
+        if (repositories.size() == 1) {
+            return performMerge(repositories.get(0), sourceBranch, targetBranches, squash, pushAfterMerge,
+                    deleteSourceBranch, commitMessage, indicator);
+        }
+
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        try {
+            Map<GitRepository, MergeRunResult> results = new MultiRepositoryExecutor(repositories.size()).execute(
+                    repositories,
+                    repository -> {
+                        List<String> repositoryTargets = filterExistingBranches(repository, targetBranches);
+                        if (repository.getBranches().findLocalBranch(sourceBranch) == null
+                                || repositoryTargets.isEmpty()) {
+                            return null;
+                        }
+                        return executeMultiMergeOperation(repository, sourceBranch, repositoryTargets, squash,
+                                pushAfterMerge, deleteSourceBranch, commitMessage, indicator);
+                    },
+                    indicator);
+            notifyRepositoriesSummary(results);
+            future.complete(results.values().stream()
+                    .allMatch(result -> result == null || result.failureMessage == null && result.allSuccessful));
+        } catch (Exception e) {
+            NotificationHelper.notifyError(project, NotificationHelper.DEFAULT_TITLE, e);
+            future.complete(false);
+        }
+        return future;
+    }
+
+    /** Mantém apenas as branches que existem localmente no repositório. */
+    private static List<String> filterExistingBranches(GitRepository repository, List<String> branches) {
+        List<String> existing = new ArrayList<>();
+        for (String branch : branches) {
+            if (repository.getBranches().findLocalBranch(branch) != null) {
+                existing.add(branch);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Executa a operação de multi-merge num repositório, delegando cada etapa
+     * para métodos auxiliar.
+     *
+     * @return Resultado das targets; failureMessage indica uma execução interrompida.
+     */
+    private MergeRunResult executeMultiMergeOperation(
             GitRepository repository,
             String sourceBranch,
             List<String> targetBranches,
@@ -115,8 +207,11 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
             boolean pushAfterMerge,
             boolean deleteSourceBranch,
             String commitMessage,
-            ProgressIndicator indicator,
-            CompletableFuture<Boolean> future) {
+            ProgressIndicator indicator) {
+        // Os pedidos de atualização do estado VCS são agrupados até o fim da execução
+        VcsRefreshCoordinator refreshCoordinator = VcsRefreshCoordinator.getInstance(project);
+        refreshCoordinator.beginRun();
+        String headBefore = null;
         try {
             indicator.setIndeterminate(false);
             indicator.setText(MessageBundle.message("progress.preparing"));
@@ -124,23 +219,53 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
 
             String originalBranch = repository.getCurrentBranchName();
             if (originalBranch == null) {
-                notifyErrorNoSource(future);
-                return;
+                return MergeRunResult.failed(MessageBundle.message("error.no.source"));
             }
+            headBefore = gitOps.resolveRevision(repository, "HEAD");
+
+            // Refs capturadas uma única vez e partilhadas por todas as etapas da execução
+            RefSnapshot refs = gitOps.captureRefs(repository);
+            MergeContext sourceContext = new MergeContext(project, repository, sourceBranch, sourceBranch, squash,
+                    pushAfterMerge, deleteSourceBranch, commitMessage, indicator);
+            sourceContext.refs = refs;
+
+            // Sincroniza todas as targets com o remote antes de qualquer merge
+            MergeRunResult syncResult = new MergeRunResult();
+            SyncTargetsStep.Outcome sync = new SyncTargetsStep(gitOps).execute(
+                    sourceContext, targetBranches, originalBranch, syncResult);
+            // Classifica as targets e descarta as que já contêm a source
+            PlanTargetsStep.Outcome planned = new PlanTargetsStep(gitOps).execute(sourceContext, sync, syncResult);
 
             // Envia a branch source para o remote, se pushAfterMerge for true e
             // deleteSourceBranch for false.
-            new PushSourceBranchStep(gitOps).execute(
-                    new MergeContext(project, repository, sourceBranch, sourceBranch, squash, pushAfterMerge,
-                            deleteSourceBranch, commitMessage, indicator));
+            new PushSourceBranchStep(gitOps).execute(sourceContext);
 
-            MergeResult result = processTargetBranches(
-                    repository, sourceBranch, originalBranch, targetBranches, squash, pushAfterMerge,
-                    deleteSourceBranch, commitMessage,
+            MergeRunResult result = processTargets(
+                    repository, sourceBranch, originalBranch, planned.targets, planned.plan, squash,
+                    pushAfterMerge, deleteSourceBranch, commitMessage,
                     indicator);
+            result.addAll(syncResult);
+
+            boolean shouldDelete = deleteSourceBranch && result.allSuccessful && result.abortCause == null;
+            boolean remoteSourceDeleted = false;
+            if (pushAfterMerge) {
+                boolean atomic = GitMultiMergeSettings.getInstance(project).getState().atomicPush;
+                // Com --atomic a remoção da source remota segue no mesmo push e só é
+                // aplicada se todas as targets forem aceitas.
+                boolean deleteRemoteSource = shouldDelete && atomic
+                        && refs.hasRemoteBranch(sourceBranch);
+                boolean pushed = handleBatchPush(repository, sourceBranch, refs, result, deleteRemoteSource, atomic,
+                        squash, commitMessage, indicator);
+                remoteSourceDeleted = deleteRemoteSource && pushed;
+                shouldDelete = shouldDelete && result.allSuccessful;
+            }
+            if (result.abortCause != null) {
+                throw result.abortCause;
+            }
 
-            boolean shouldDelete = deleteSourceBranch && result.allSuccessful;
-            boolean shouldReturnToOriginal = !shouldDelete || !originalBranch.equals(sourceBranch);
+            // Nenhum checkout é necessário se o working tree nunca saiu da branch original
+            boolean shouldReturnToOriginal = (!shouldDelete || !originalBranch.equals(sourceBranch))
+                    && !originalBranch.equals(result.currentBranch);
 
             if (shouldReturnToOriginal) {
                 handleReturnToOriginalBranch(repository, sourceBranch, originalBranch, squash, pushAfterMerge,
@@ -149,8 +274,8 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
 
             if (shouldDelete) {
                 deleteSourceBranch = handleDeleteSourceBranch(repository, sourceBranch, originalBranch,
-                        targetBranches.get(0), squash,
-                        pushAfterMerge, commitMessage, indicator);
+                        targetBranches.get(0), refs, squash,
+                        pushAfterMerge, commitMessage, indicator, !remoteSourceDeleted);
                 if (!deleteSourceBranch) {
                     NotificationHelper.notifyWarning(
                             project,
@@ -160,51 +285,168 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
             }
 
             handleFetchIfNeeded(repository, pushAfterMerge && result.allSuccessful, deleteSourceBranch);
-            notifySummary(result.allSuccessfulMerges, result.allFailedMerges, result.allSuccessful);
-            future.complete(result.allSuccessful);
+            return result;
+        } catch (ProcessCanceledException e) {
+            throw e;
         } catch (Exception e) {
-            NotificationHelper.notifyError(project, NotificationHelper.DEFAULT_TITLE, e);
-            future.complete(false);
+            String message = e.getMessage();
+            return MergeRunResult.failed(message == null || message.isEmpty()
+                    ? e.getClass().getSimpleName()
+                    : message);
+        } finally {
+            recordChangedPaths(refreshCoordinator, repository, headBefore, indicator);
+            refreshCoordinator.endRun();
         }
     }
 
-    /** Estrutura para acumular resultados do processamento dos targets. */
-    private static class MergeResult {
-        final List<String> allSuccessfulMerges = new ArrayList<>();
-        final List<String> allFailedMerges = new ArrayList<>();
-        boolean allSuccessful = true;
+    /**
+     * Registra os arquivos que mudaram no working tree principal entre o início
+     * e o fim da execução, para que apenas eles sejam atualizados na IDE.
+     */
+    private void recordChangedPaths(VcsRefreshCoordinator refreshCoordinator, GitRepository repository,
+            @Nullable String headBefore, ProgressIndicator indicator) {
+        List<String> paths = null;
+        if (headBefore != null && !indicator.isCanceled()) {
+            String headAfter = gitOps.resolveRevision(repository, "HEAD");
+            if (headBefore.equals(headAfter)) {
+                paths = List.of();
+            } else if (headAfter != null) {
+                paths = gitOps.findChangedPaths(repository, headBefore, headAfter);
+            }
+        }
+        refreshCoordinator.recordChangedPaths(repository.getRoot(), paths);
     }
 
-    /** Processa o merge para todas as branches target. */
-    private MergeResult processTargetBranches(
+    /**
+     * Processa o merge para todas as branches target, conforme o modo de execução
+     * configurado.
+     */
+    private MergeRunResult processTargets(
             GitRepository repository,
             String sourceBranch,
             String originalBranch,
             List<String> targetBranches,
+            RunPlan plan,
             boolean squash,
             boolean pushAfterMerge,
             boolean deleteSourceBranch,
             String commitMessage,
             ProgressIndicator indicator) throws MultiMergeOperationException {
-        MergeResult result = new MergeResult();
+        GitMultiMergeSettings settings = GitMultiMergeSettings.getInstance(project);
+        MergeExecutionMode mode = settings.getState().executionMode;
+        if (mode == MergeExecutionMode.PIPELINED && pushAfterMerge) {
+            MergeContext pushContext = new MergeContext(project, repository, sourceBranch, sourceBranch, squash,
+                    true, false, commitMessage, indicator);
+            pushContext.refs = plan.refs;
+            PushPipeline pipeline = new PushPipeline(
+                    new BatchPushStep(gitOps, settings.getState().atomicPush), pushContext, PUSH_QUEUE_CAPACITY);
+            MergeRunResult result = new MergeRunResult();
+            try {
+                result.addAll(processTargetBranches(repository, sourceBranch, originalBranch, targetBranches,
+                        plan, squash, pushAfterMerge, deleteSourceBranch, commitMessage, indicator,
+                        false, pipeline));
+            } finally {
+                // Os pushes ainda na fila são concluídos mesmo se o processamento foi interrompido
+                for (String branch : pipeline.close()) {
+                    result.markPushFailed(branch);
+                }
+            }
+            return result;
+        }
+        if (!mode.usesWorktrees()) {
+            MergeRunResult result = processTargetBranches(repository, sourceBranch, originalBranch, targetBranches,
+                    plan, squash, pushAfterMerge, deleteSourceBranch, commitMessage, indicator,
+                    mode == MergeExecutionMode.CHECKOUT_FREE, null);
+            if (mode == MergeExecutionMode.CHECKOUT_FREE) {
+                // As refs foram movidas sem checkout; atualiza o estado do repositório na IDE
+                GitRepositoryManager.getInstance(project).updateRepository(repository.getRoot());
+            }
+            return result;
+        }
+
+        // A branch em checkout não pode ser usada num segundo worktree; é processada
+        // no working tree principal, onde já está ativa.
+        List<String> worktreeTargets = new ArrayList<>(targetBranches);
+        MergeRunResult result = new MergeRunResult();
+        result.currentBranch = originalBranch;
+        if (worktreeTargets.remove(originalBranch)) {
+            result.addAll(processTargetBranches(repository, sourceBranch, originalBranch, List.of(originalBranch),
+                    plan, squash, pushAfterMerge, deleteSourceBranch, commitMessage, indicator,
+                    false, null));
+        }
+        result.addAll(new WorktreeMergeExecutor(project, gitOps, settings.getMaxParallelTargets(),
+                mode == MergeExecutionMode.SPARSE_WORKTREES).execute(
+                repository, sourceBranch, worktreeTargets, plan, squash, pushAfterMerge,
+                deleteSourceBranch, commitMessage, indicator));
+        // As branches foram atualizadas fora do working tree principal
+        GitRepositoryManager.getInstance(project).updateRepository(repository.getRoot());
+        return result;
+    }
+
+    /**
+     * Processa o merge para todas as branches target no working tree principal.
+     * Com checkoutFree, as targets são sincronizadas e mescladas sem checkout,
+     * que só ocorre quando há conflitos a resolver. Com pipeline, cada target
+     * mesclada é enviada em background em vez de aguardar o push em lote.
+     */
+    private MergeRunResult processTargetBranches(
+            GitRepository repository,
+            String sourceBranch,
+            String originalBranch,
+            List<String> targetBranches,
+            RunPlan plan,
+            boolean squash,
+            boolean pushAfterMerge,
+            boolean deleteSourceBranch,
+            String commitMessage,
+            ProgressIndicator indicator,
+            boolean checkoutFree,
+            @Nullable PushPipeline pipeline) throws MultiMergeOperationException {
+        MergeRunResult result = new MergeRunResult();
+        result.currentBranch = originalBranch;
+        int processed = 0;
         for (String targetBranch : targetBranches) {
-            indicator.setText(MessageBundle.message("progress.processing", targetBranch));
+            indicator.checkCanceled();
+            indicator.setText(MessageBundle.message("progress.processing.count", targetBranch, ++processed,
+                    targetBranches.size()));
+            indicator.setFraction((double) (processed - 1) / targetBranches.size());
             MergeContext context = new MergeContext(
                     project, repository, sourceBranch, targetBranch,
                     squash, pushAfterMerge, deleteSourceBranch, commitMessage, indicator);
-            MergeStep[] steps = new MergeStep[] {
-                    new CheckoutBranchStep(gitOps),
-                    new SyncBranchStep(gitOps),
-                    new CheckUpToDateStep(gitOps),
-                    new PerformMergeStep(gitOps),
-                    new PushBranchStep(gitOps, false)
-            };
-            executeSteps(steps, context, targetBranch, originalBranch);
-            result.allSuccessfulMerges.addAll(context.successfulMerges);
-            result.allFailedMerges.addAll(context.failedMerges);
-            if (!context.allSuccessful) {
-                result.allSuccessful = false;
+            context.atualBranch = result.currentBranch;
+            context.deferPush = true;
+            context.refs = plan.refs;
+            context.targetSynced = plan.isSynchronized(targetBranch);
+            context.targetPlan = plan.planOf(targetBranch);
+            MergeStep[] steps = checkoutFree
+                    ? new MergeStep[] {
+                            new SyncRefStep(gitOps),
+                            new CheckUpToDateStep(gitOps),
+                            new CheckoutFreeMergeStep(gitOps),
+                            new PushBranchStep(gitOps, false)
+                    }
+                    : new MergeStep[] {
+                            new CheckoutBranchStep(gitOps),
+                            new SyncBranchStep(gitOps),
+                            new CheckUpToDateStep(gitOps),
+                            new PerformMergeStep(gitOps),
+                            new PushBranchStep(gitOps, false)
+                    };
+            try {
+                executeSteps(steps, context, targetBranch, originalBranch);
+            } catch (MultiMergeOperationException e) {
+                // Interrompe a execução, mas mantém os merges anteriores para o push em lote
+                result.add(context);
+                result.currentBranch = originalBranch;
+                result.abortCause = e;
+                break;
             }
+            if (pipeline != null) {
+                pipeline.submit(List.copyOf(context.pendingPushes));
+                context.pendingPushes.clear();
+            }
+            result.add(context);
+            result.currentBranch = context.atualBranch;
         }
         return result;
     }
@@ -265,21 +507,41 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
 
     }
 
+    /** Envia num único push as targets mescladas e, se indicado, remove a source remota. */
+    private boolean handleBatchPush(
+            GitRepository repository,
+            String sourceBranch,
+            RefSnapshot refs,
+            MergeRunResult result,
+            boolean deleteRemoteSource,
+            boolean atomic,
+            boolean squash,
+            String commitMessage,
+            ProgressIndicator indicator) {
+        MergeContext context = new MergeContext(project, repository, sourceBranch, sourceBranch, squash, true,
+                deleteRemoteSource, commitMessage, indicator);
+        context.refs = refs;
+        return new BatchPushStep(gitOps, atomic).execute(context, result, deleteRemoteSource);
+    }
+
     /** Delete a branch source, se necessário. */
     private boolean handleDeleteSourceBranch(
             GitRepository repository,
             String sourceBranch,
             String originalBranch,
             String targetBranch,
+            RefSnapshot refs,
             boolean squash,
             boolean pushAfterMerge,
             String commitMessage,
-            ProgressIndicator indicator) {
+            ProgressIndicator indicator,
+            boolean deleteRemote) {
         indicator.setText(MessageBundle.message("progress.deleting"));
         indicator.setFraction(1.0);
-        return new DeleteSourceBranchStep(gitOps, originalBranch).execute(
-                new MergeContext(project, repository, sourceBranch, targetBranch, squash, pushAfterMerge,
-                        true, commitMessage, indicator));
+        MergeContext context = new MergeContext(project, repository, sourceBranch, targetBranch, squash,
+                pushAfterMerge, true, commitMessage, indicator);
+        context.refs = refs;
+        return new DeleteSourceBranchStep(gitOps, originalBranch, deleteRemote).execute(context);
     }
 
     /** Executa fetch --all se houve push ou branch removida. */
@@ -293,18 +555,52 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
 
     /** Notifica o resumo das operações ao utilizador. */
     private void notifySummary(List<String> allSuccessfulMerges, List<String> allFailedMerges, boolean allSuccessful) {
+        String htmlSummary = "<html>" + buildSummary(allSuccessfulMerges, allFailedMerges) + "</html>";
+        notifySummary(htmlSummary, allSuccessful);
+    }
+
+    /**
+     * Notifica um único resumo com uma seção por repositório. Repositórios sem
+     * resultado não tinham a source ou nenhuma das targets.
+     */
+    private void notifyRepositoriesSummary(Map<GitRepository, MergeRunResult> results) {
+        StringBuilder summary = new StringBuilder();
+        boolean allSuccessful = true;
+        for (Map.Entry<GitRepository, MergeRunResult> entry : results.entrySet()) {
+            if (!summary.isEmpty()) {
+                summary.append("<br><br>");
+            }
+            summary.append("<b>").append(DvcsUtil.getShortRepositoryName(entry.getKey())).append("</b><br>");
+            MergeRunResult result = entry.getValue();
+            if (result == null) {
+                summary.append(MessageBundle.message("summary.repository.skipped"));
+            } else if (result.failureMessage != null) {
+                allSuccessful = false;
+                summary.append(MessageBundle.message("summary.repository.failed", result.failureMessage));
+            } else {
+                allSuccessful &= result.allSuccessful;
+                summary.append(buildSummary(result.allSuccessfulMerges, result.allFailedMerges));
+            }
+        }
+        notifySummary("<html>" + summary + "</html>", allSuccessful);
+    }
+
+    private static String buildSummary(List<String> allSuccessfulMerges, List<String> allFailedMerges) {
         StringBuilder summary = new StringBuilder();
         if (!allSuccessfulMerges.isEmpty()) {
             summary.append(MessageBundle.message("summary.successful.merges",
-                    String.join(", ", allSuccessfulMerges)));
+                    formatBranchList(allSuccessfulMerges)));
         }
         if (!allFailedMerges.isEmpty()) {
             if (!summary.isEmpty())
                 summary.append("<br>");
             summary.append(MessageBundle.message("summary.failed.merges",
-                    String.join(", ", allFailedMerges)));
+                    formatBranchList(allFailedMerges)));
         }
-        String htmlSummary = "<html>" + summary + "</html>";
+        return summary.toString();
+    }
+
+    private void notifySummary(String htmlSummary, boolean allSuccessful) {
         if (allSuccessful) {
             NotificationHelper.notifySuccess(
                     project,
@@ -318,17 +614,19 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
         }
     }
 
-    /** Notifica erro e completa o future caso a branch source seja inválida. */
-    private void notifyErrorNoSource(CompletableFuture<Boolean> future) {
-        NotificationHelper.notifyError(
-                project,
-                NotificationHelper.DEFAULT_TITLE,
-                MessageBundle.message("error.no.source"));
-        future.complete(false);
+    /** Lista as branches no resumo, abreviando execuções com muitas targets. */
+    private static String formatBranchList(List<String> branches) {
+        if (branches.size() <= SUMMARY_MAX_BRANCHES) {
+            return String.join(", ", branches);
+        }
+        return String.join(", ", branches.subList(0, SUMMARY_MAX_BRANCHES)) + " "
+                + MessageBundle.message("summary.more", branches.size() - SUMMARY_MAX_BRANCHES);
     }
 
     /**
      * Verifica se há alterações não enviadas no working directory.
+     * Pergunta primeiro ao git, que para na primeira alteração; recorre ao
+     * ChangeListManager apenas se o git não puder responder.
      *
      * @param repository Repositório Git alvo.
      * @return true se existem alterações não enviadas, false se o working
@@ -336,6 +634,10 @@ public final class GitMultiMergeServiceImpl implements GitMultiMergeService {
      */
     @Override
     public boolean hasUncommittedChanges(@NotNull GitRepository repository) {
+        Boolean dirty = gitOps.hasWorkingTreeChanges(repository);
+        if (dirty != null) {
+            return dirty;
+        }
         ChangeListManager changeListManager = ChangeListManager.getInstance(project);
         VirtualFile root = repository.getRoot();
         // Verifica se há arquivos modificados, staged ou não, no repositório.
@@ -0,0 +1,57 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Opções de execução do multi-merge persistidas por projeto.
+ * Preenchidas pelo diálogo e lidas pelo serviço no início de cada execução.
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "GitMultiMergeSettings", storages = @Storage(StoragePathMacros.WORKSPACE_FILE))
+public final class GitMultiMergeSettings implements PersistentStateComponent<GitMultiMergeSettings.State> {
+
+    /** Limite superior aceito para o número de targets processadas em paralelo. */
+    public static final int MAX_PARALLEL_TARGETS_LIMIT = 16;
+
+    /**
+     * Estado serializado das opções.
+     */
+    public static class State {
+        public MergeExecutionMode executionMode = MergeExecutionMode.SEQUENTIAL;
+        public int maxParallelTargets = 4;
+        public boolean atomicPush = true;
+        /** Reaplica com o git rerere as resoluções de conflitos já feitas. */
+        public boolean reuseResolutions = true;
+    }
+
+    private State state = new State();
+
+    public static GitMultiMergeSettings getInstance(@NotNull Project project) {
+        return project.getService(GitMultiMergeSettings.class);
+    }
+
+    @Override
+    public @NotNull State getState() {
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull State state) {
+        this.state = state;
+    }
+
+    /**
+     * Número de targets processadas em paralelo, limitado a um intervalo válido.
+     *
+     * @return Valor entre 1 e {@link #MAX_PARALLEL_TARGETS_LIMIT}.
+     */
+    public int getMaxParallelTargets() {
+        return Math.max(1, Math.min(state.maxParallelTargets, MAX_PARALLEL_TARGETS_LIMIT));
+    }
+}
@@ -1,39 +1,101 @@
 package com.plugin.gitmultimerge.service;
 
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.SystemInfo;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
 import com.plugin.gitmultimerge.util.MessageBundle;
-import git4idea.GitRemoteBranch;
 import git4idea.commands.Git;
+import git4idea.commands.GitBinaryHandler;
 import git4idea.commands.GitCommand;
 import git4idea.commands.GitCommandResult;
 import git4idea.commands.GitLineHandler;
+import git4idea.config.GitExecutableManager;
+import git4idea.config.GitVersion;
 import git4idea.repo.GitRepository;
 import git4idea.repo.GitRepositoryManager;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Collections;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * Implementação padrão das operações Git de baixo nível.
+ * Por omissão os comandos são executados na raiz do repositório; uma instância
+ * pode ser vinculada a outro diretório de trabalho (ex.: um git worktree).
  */
 public class GitRepositoryOperationsImpl implements GitRepositoryOperations {
+    private static final Logger LOG = Logger.getInstance(GitRepositoryOperationsImpl.class);
+    /** Commits lidos pelo cat-file antes de recorrer ao git merge-base. */
+    private static final int MAX_ANCESTRY_WALK = 2000;
+    /** Comprimento máximo dos refspecs passados numa única linha de comando. */
+    private static final int MAX_ARGUMENTS_LENGTH = 16_000;
+    private static final Pattern FULL_SHA = Pattern.compile("[0-9a-f]{40}|[0-9a-f]{64}");
+    /**
+     * Comprimento máximo dos refspecs de um push atômico, que nunca é dividido:
+     * perto do limite de 32 767 caracteres no Windows, bem mais nos demais sistemas.
+     */
+    private static final int MAX_ATOMIC_ARGUMENTS_LENGTH = SystemInfo.isWindows ? 30_000 : 1_000_000;
+    private static final GitCommand WORKTREE = GitCommand.write("worktree");
+    private static final GitCommand MERGE_TREE = GitCommand.read("merge-tree");
+    private static final GitCommand CAT_FILE = GitCommand.read("cat-file");
+    private static final GitCommand COMMIT_TREE = GitCommand.write("commit-tree");
+    private static final GitCommand SPARSE_CHECKOUT = GitCommand.write("sparse-checkout");
+    private static final GitCommand READ_TREE = GitCommand.write("read-tree");
+    /** Primeira versão em que sparse-checkout usa configuração própria em cada worktree. */
+    private static final GitVersion SPARSE_WORKTREE_VERSION = new GitVersion(2, 36, 0, 0);
+    /** Primeira versão com o campo %(ahead-behind) no for-each-ref. */
+    private static final GitVersion AHEAD_BEHIND_VERSION = new GitVersion(2, 41, 0, 0);
+
     private final Project project;
     private final Git git;
+    @Nullable
+    private final File workingDirectory;
 
     public GitRepositoryOperationsImpl(Project project) {
+        this(project, null);
+    }
+
+    /**
+     * Construtor com diretório de trabalho alternativo.
+     *
+     * @param project          Projeto atual.
+     * @param workingDirectory Diretório onde os comandos são executados, ou null
+     *                         para usar a raiz do repositório.
+     */
+    public GitRepositoryOperationsImpl(Project project, @Nullable File workingDirectory) {
         this.project = project;
         this.git = Git.getInstance();
+        this.workingDirectory = workingDirectory;
+    }
+
+    /** Cria o handler no diretório de trabalho desta instância. */
+    private GitLineHandler newHandler(@NotNull GitRepository repository, @NotNull GitCommand command) {
+        if (workingDirectory != null) {
+            return new GitLineHandler(project, workingDirectory, command);
+        }
+        return new GitLineHandler(project, repository.getRoot(), command);
     }
 
     /** Faz checkout para a branch especificada. */
     @Override
     public GitCommandResult checkout(@NotNull GitRepository repository, @NotNull String branchName) {
-        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.CHECKOUT);
+        GitLineHandler handler = newHandler(repository, GitCommand.CHECKOUT);
         handler.addParameters(branchName);
         return git.runCommand(handler);
     }
@@ -42,14 +104,16 @@ public class GitRepositoryOperationsImpl implements GitRepositoryOperations {
     @Override
     public GitCommandResult merge(@NotNull GitRepository repository, @NotNull String sourceBranch, boolean squash,
             String commitMessage) {
-        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.MERGE);
+        GitLineHandler handler = newHandler(repository, GitCommand.MERGE);
+        enableRerere(handler);
         if (squash) {
             handler.addParameters("--squash");
         }
         handler.addParameters(sourceBranch);
         GitCommandResult result = git.runCommand(handler);
         if (squash && result.success()) {
-            GitLineHandler commitHandler = new GitLineHandler(project, repository.getRoot(), GitCommand.COMMIT);
+            GitLineHandler commitHandler = newHandler(repository, GitCommand.COMMIT);
+            enableRerere(commitHandler);
             commitHandler.addParameters("--no-edit");
             if (commitMessage != null && !commitMessage.isEmpty()) {
                 commitHandler.addParameters("-m", commitMessage);
@@ -70,7 +134,7 @@ public class GitRepositoryOperationsImpl implements GitRepositoryOperations {
      */
     @Override
     public GitCommandResult push(@NotNull GitRepository repository, @NotNull String branchName, boolean setUpstream) {
-        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.PUSH);
+        GitLineHandler handler = newHandler(repository, GitCommand.PUSH);
         if (setUpstream) {
             handler.addParameters("-u");
         }
@@ -87,36 +151,110 @@ public class GitRepositoryOperationsImpl implements GitRepositoryOperations {
      */
     @Override
     public GitCommandResult pull(@NotNull GitRepository repository, @NotNull String branchName) {
-        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.PULL);
+        GitLineHandler handler = newHandler(repository, GitCommand.PULL);
         handler.addParameters("origin", branchName);
         return git.runCommand(handler);
     }
 
-    /** Delete a branch local especificada. */
+    /**
+     * Envia várias refs com git push --porcelain, numa única invocação sempre que
+     * a linha de comando o permitir. Acima disso, sem atomic, as refs seguem em
+     * blocos. Um push atômico nunca é dividido, pois cada bloco seria atômico só
+     * por si: se não couber numa linha de comando, falha sem enviar nada.
+     */
     @Override
-    public GitCommandResult deleteBranch(@NotNull GitRepository repository, @NotNull String branchName) {
-        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.BRANCH);
-        handler.addParameters("-D", branchName);
-        return git.runCommand(handler);
+    public GitCommandResult pushRefs(@NotNull GitRepository repository, @NotNull List<String> refspecs,
+            boolean atomic) {
+        if (atomic && argumentsLength(refspecs) > MAX_ATOMIC_ARGUMENTS_LENGTH) {
+            return GitCommandResult.error(MessageBundle.message("error.push.atomic.too.long", refspecs.size()));
+        }
+        List<GitCommandResult> results = new ArrayList<>();
+        for (List<String> chunk : atomic ? List.of(refspecs) : chunkArguments(refspecs)) {
+            GitLineHandler handler = newHandler(repository, GitCommand.PUSH);
+            handler.addParameters("--porcelain");
+            if (atomic) {
+                handler.addParameters("--atomic");
+            }
+            handler.addParameters("origin");
+            handler.addParameters(chunk);
+            results.add(git.runCommand(handler));
+        }
+        return combine(results);
     }
 
-    /** Busca a branch remota correspondente a uma branch local. */
     @Override
-    public GitRemoteBranch findRemoteBranch(@NotNull GitRepository repository, @NotNull String localBranchName) {
-        for (GitRemoteBranch remoteBranch : repository.getBranches().getRemoteBranches()) {
-            if (remoteBranch.getNameForLocalOperations().equals("origin/" + localBranchName)) {
-                return remoteBranch;
+    public GitCommandResult setUpstream(@NotNull GitRepository repository, @NotNull List<String> branches) {
+        List<GitCommandResult> results = new ArrayList<>();
+        for (String branch : branches) {
+            GitLineHandler handler = newHandler(repository, GitCommand.BRANCH);
+            handler.addParameters("--set-upstream-to=origin/" + branch, branch);
+            results.add(git.runCommand(handler));
+        }
+        return combine(results);
+    }
+
+    private static int argumentsLength(List<String> arguments) {
+        int length = 0;
+        for (String argument : arguments) {
+            length += argument.length() + 1;
+        }
+        return length;
+    }
+
+    /**
+     * Divide os argumentos em blocos cujo comprimento somado cabe na linha de
+     * comando de todos os sistemas (o limite do Windows é de 32 767 caracteres).
+     */
+    private static List<List<String>> chunkArguments(List<String> arguments) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int length = 0;
+        for (String argument : arguments) {
+            if (!current.isEmpty() && length + argument.length() + 1 > MAX_ARGUMENTS_LENGTH) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                length = 0;
             }
+            current.add(argument);
+            length += argument.length() + 1;
         }
-        return null;
+        if (!current.isEmpty() || chunks.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    /** Junta os resultados de várias invocações; falha se alguma falhou. */
+    private static GitCommandResult combine(List<GitCommandResult> results) {
+        if (results.size() == 1) {
+            return results.get(0);
+        }
+        List<String> output = new ArrayList<>();
+        List<String> errorOutput = new ArrayList<>();
+        int exitCode = 0;
+        for (GitCommandResult result : results) {
+            output.addAll(result.getOutput());
+            errorOutput.addAll(result.getErrorOutput());
+            if (!result.success()) {
+                exitCode = result.getExitCode() != 0 ? result.getExitCode() : 1;
+            }
+        }
+        return new GitCommandResult(false, exitCode, errorOutput, output);
+    }
+
+    /** Delete a branch local especificada. */
+    @Override
+    public GitCommandResult deleteBranch(@NotNull GitRepository repository, @NotNull String branchName) {
+        GitLineHandler handler = newHandler(repository, GitCommand.BRANCH);
+        handler.addParameters("-D", branchName);
+        return git.runCommand(handler);
     }
 
     /** Delete a branch remota especificada. */
     @Override
-    public GitCommandResult deleteRemoteBranch(@NotNull GitRepository repository,
-            @NotNull GitRemoteBranch remoteBranch) {
-        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.PUSH);
-        handler.addParameters("origin", "--delete", remoteBranch.getNameForRemoteOperations());
+    public GitCommandResult deleteRemoteBranch(@NotNull GitRepository repository, @NotNull String branchName) {
+        GitLineHandler handler = newHandler(repository, GitCommand.PUSH);
+        handler.addParameters("origin", "--delete", branchName);
         return git.runCommand(handler);
     }
 
@@ -126,7 +264,7 @@ public class GitRepositoryOperationsImpl implements GitRepositoryOperations {
      */
     @Override
     public boolean hasPendingChanges(@NotNull GitRepository repository, @NotNull String sourceBranch) {
-        GitLineHandler diffHandler = new GitLineHandler(project, repository.getRoot(), GitCommand.DIFF);
+        GitLineHandler diffHandler = newHandler(repository, GitCommand.DIFF);
         diffHandler.addParameters(sourceBranch, "--name-only");
         GitCommandResult diffResult = git.runCommand(diffHandler);
 
@@ -134,12 +272,28 @@ public class GitRepositoryOperationsImpl implements GitRepositoryOperations {
         return diffResult.getOutput().stream().anyMatch(line -> !line.trim().isEmpty());
     }
 
+    @Override
+    public @Nullable Boolean hasWorkingTreeChanges(@NotNull GitRepository repository) {
+        GitLineHandler handler = newHandler(repository, GitCommand.DIFF);
+        // --quiet encerra o diff na primeira diferença; sem locks opcionais, não
+        // disputa o índice com a IDE
+        handler.addParameters("--quiet", "HEAD");
+        handler.endOptions();
+        handler.addCustomEnvironmentVariable("GIT_OPTIONAL_LOCKS", "0");
+        GitCommandResult result = git.runCommand(handler);
+        return switch (result.getExitCode()) {
+            case 0 -> false;
+            case 1 -> true;
+            default -> null;
+        };
+    }
+
     /**
      * Executa git fetch --all para atualizar referências remotas.
      */
     @Override
     public void fetchAll(@NotNull GitRepository repository, boolean deletedBranches) {
-        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.FETCH);
+        GitLineHandler handler = newHandler(repository, GitCommand.FETCH);
         handler.addParameters("--all");
         if (deletedBranches) {
             handler.addParameters("--prune");
@@ -151,7 +305,9 @@ public class GitRepositoryOperationsImpl implements GitRepositoryOperations {
 
     @Override
     public GitCommandResult commit(@NotNull GitRepository repository, String commitMessage) {
-        GitLineHandler commitHandler = new GitLineHandler(project, repository.getRoot(), GitCommand.COMMIT);
+        GitLineHandler commitHandler = newHandler(repository, GitCommand.COMMIT);
+        // O commit registra no rerere a resolução feita pelo usuário
+        enableRerere(commitHandler);
         commitHandler.addParameters("--no-edit");
         if (commitMessage != null && !commitMessage.isEmpty()) {
             commitHandler.addParameters("-m", commitMessage);
@@ -159,43 +315,39 @@ public class GitRepositoryOperationsImpl implements GitRepositoryOperations {
         return git.runCommand(commitHandler);
     }
 
+    /**
+     * Ativa o git rerere só para este comando, sem alterar a configuração do
+     * repositório. O merge reaplica (e adiciona ao index) as resoluções já
+     * registradas para conflitos idênticos; o commit registra as novas. As
+     * resoluções ficam em .git/rr-cache, compartilhado pelos worktrees.
+     * Usa parâmetros -c, que se somam às variáveis GIT_CONFIG_* já presentes no
+     * ambiente da IDE em vez de substituí-las.
+     */
+    private void enableRerere(GitLineHandler handler) {
+        if (!GitMultiMergeSettings.getInstance(project).getState().reuseResolutions) {
+            return;
+        }
+        handler.overwriteConfig("rerere.enabled=true", "rerere.autoUpdate=true");
+    }
+
     @Override
     public boolean isTargetUpToDateWithSource(@NotNull GitRepository repository, @NotNull String targetBranch,
             @NotNull String sourceBranch) {
-        // Obtém o hash do merge-base entre target e source
-        GitLineHandler mergeBaseHandler = new GitLineHandler(project, repository.getRoot(), GitCommand.MERGE_BASE);
-        mergeBaseHandler.addParameters(targetBranch, sourceBranch);
-        GitCommandResult mergeBaseResult = git.runCommand(mergeBaseHandler);
-        if (!mergeBaseResult.success() || mergeBaseResult.getOutput().isEmpty()) {
-            return false;
-        }
-        String mergeBase = mergeBaseResult.getOutput().get(0).trim();
-
-        // Obtém o hash do último commit da source
-        GitLineHandler sourceHeadHandler = new GitLineHandler(project, repository.getRoot(), GitCommand.REV_PARSE);
-        sourceHeadHandler.addParameters(sourceBranch);
-        GitCommandResult sourceHeadResult = git.runCommand(sourceHeadHandler);
-        if (!sourceHeadResult.success() || sourceHeadResult.getOutput().isEmpty()) {
+        // A target contém todos os commits da source quando o head da source é seu ancestral
+        String sourceHead = resolveRevision(repository, sourceBranch);
+        String targetHead = resolveRevision(repository, targetBranch);
+        if (sourceHead == null || targetHead == null) {
             return false;
         }
-        String sourceHead = sourceHeadResult.getOutput().get(0).trim();
-
-        // Se o merge-base é igual ao head da source, a target contém todos os commits
-        // da source
-        return mergeBase.equals(sourceHead);
+        return isAncestor(repository, sourceHead, targetHead);
     }
 
     @Override
     public Set<VirtualFile> getConflictedFiles(@NotNull GitRepository repository) {
-        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.DIFF);
-        handler.addParameters("--name-only", "--diff-filter=U");
-        GitCommandResult result = git.runCommand(handler);
-        if (!result.success()) {
-            return Collections.emptySet();
-        }
+        VirtualFile workingRoot = getWorkingRoot(repository);
         Set<VirtualFile> conflictedFiles = new HashSet<>();
-        for (String path : result.getOutput()) {
-            VirtualFile file = repository.getRoot().findFileByRelativePath(path);
+        for (ConflictedFile conflict : listConflicts(repository)) {
+            VirtualFile file = workingRoot.findFileByRelativePath(conflict.path());
             if (file != null) {
                 conflictedFiles.add(file);
             }
@@ -203,9 +355,83 @@ public class GitRepositoryOperationsImpl implements GitRepositoryOperations {
         return conflictedFiles;
     }
 
+    @Override
+    public @NotNull List<ConflictedFile> listConflicts(@NotNull GitRepository repository) {
+        GitLineHandler handler = newHandler(repository, GitCommand.LS_FILES);
+        handler.addParameters("-u", "-z");
+        GitCommandResult result = git.runCommand(handler);
+        if (!result.success()) {
+            return List.of();
+        }
+        // Entradas "<modo> <blob> <estágio>\t<caminho>", uma por estágio, agrupadas por caminho
+        Map<String, String[]> stages = new LinkedHashMap<>();
+        for (String line : result.getOutput()) {
+            for (String entry : line.split("\0")) {
+                int tab = entry.indexOf('\t');
+                String[] fields = tab < 0 ? new String[0] : entry.substring(0, tab).split(" ");
+                if (fields.length != 3) {
+                    continue;
+                }
+                int stage = fields[2].charAt(0) - '1';
+                if (stage >= 0 && stage < 3) {
+                    stages.computeIfAbsent(entry.substring(tab + 1), path -> new String[3])[stage] = fields[1];
+                }
+            }
+        }
+        List<ConflictedFile> conflicts = new ArrayList<>(stages.size());
+        stages.forEach((path, blobs) -> conflicts.add(new ConflictedFile(path, blobs[0], blobs[1], blobs[2])));
+        return conflicts;
+    }
+
+    @Override
+    public GitCommandResult resolveWithVersion(@NotNull GitRepository repository, @NotNull ConflictedFile conflict,
+            boolean ours) {
+        String blob = ours ? conflict.oursBlob() : conflict.theirsBlob();
+        if (blob == null) {
+            GitLineHandler rmHandler = newHandler(repository, GitCommand.RM);
+            rmHandler.addParameters("--quiet");
+            rmHandler.endOptions();
+            rmHandler.addParameters(conflict.path());
+            return git.runCommand(rmHandler);
+        }
+        GitLineHandler checkoutHandler = newHandler(repository, GitCommand.CHECKOUT);
+        checkoutHandler.addParameters(ours ? "--ours" : "--theirs");
+        checkoutHandler.endOptions();
+        checkoutHandler.addParameters(conflict.path());
+        GitCommandResult result = git.runCommand(checkoutHandler);
+        if (!result.success()) {
+            return result;
+        }
+        GitLineHandler addHandler = newHandler(repository, GitCommand.ADD);
+        addHandler.endOptions();
+        addHandler.addParameters(conflict.path());
+        return git.runCommand(addHandler);
+    }
+
+    @Override
+    public byte @Nullable [] readBlob(@NotNull GitRepository repository, @NotNull String sha) {
+        GitCatFileProcess catFile = GitCatFileService.getInstance(project).get(repository);
+        if (catFile != null) {
+            try {
+                return catFile.readBlob(sha);
+            } catch (IOException e) {
+                LOG.info("git cat-file failed, falling back to cat-file blob", e);
+            }
+        }
+        GitBinaryHandler handler = new GitBinaryHandler(project, getWorkingRoot(repository), CAT_FILE);
+        handler.setSilent(true);
+        handler.addParameters("blob", sha);
+        try {
+            return handler.run();
+        } catch (VcsException e) {
+            LOG.info("Unable to read blob " + sha, e);
+            return null;
+        }
+    }
+
     @Override
     public void addFilesToIndex(@NotNull GitRepository repository, @NotNull List<VirtualFile> files) {
-        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.ADD);
+        GitLineHandler handler = newHandler(repository, GitCommand.ADD);
         handler.addRelativeFiles(files);
         GitCommandResult result = git.runCommand(handler);
         if (!result.success()) {
@@ -215,8 +441,444 @@ public class GitRepositoryOperationsImpl implements GitRepositoryOperations {
 
     @Override
     public void abortMerge(@NotNull GitRepository repository) {
-        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.MERGE);
+        GitLineHandler handler = newHandler(repository, GitCommand.MERGE);
         handler.addParameters("--abort");
         git.runCommand(handler);
     }
-}
\ No newline at end of file
+
+    @Override
+    public @NotNull VirtualFile getWorkingRoot(@NotNull GitRepository repository) {
+        if (workingDirectory != null) {
+            VirtualFile root = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(workingDirectory);
+            if (root != null) {
+                return root;
+            }
+        }
+        return repository.getRoot();
+    }
+
+    @Override
+    public GitCommandResult addWorktree(@NotNull GitRepository repository, @NotNull File path,
+            @NotNull String branchName) {
+        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), WORKTREE);
+        handler.addParameters("add", FileUtil.toSystemIndependentName(path.getPath()), branchName);
+        return git.runCommand(handler);
+    }
+
+    @Override
+    public GitCommandResult addSparseWorktree(@NotNull GitRepository repository, @NotNull File path,
+            @NotNull String branchName, @NotNull Collection<String> directories) {
+        GitVersion version = GitExecutableManager.getInstance().getVersion(project);
+        if (!version.isLaterOrEqual(SPARSE_WORKTREE_VERSION)) {
+            // Versões anteriores gravam core.sparseCheckout na configuração compartilhada,
+            // o que afetaria o working tree principal
+            return new GitCommandResult(false, 1,
+                    List.of("git " + version.getPresentation() + " does not isolate sparse-checkout per worktree"),
+                    List.of());
+        }
+        GitLineHandler addHandler = new GitLineHandler(project, repository.getRoot(), WORKTREE);
+        addHandler.addParameters("add", "--no-checkout", FileUtil.toSystemIndependentName(path.getPath()),
+                branchName);
+        GitCommandResult addResult = git.runCommand(addHandler);
+        if (!addResult.success()) {
+            return addResult;
+        }
+
+        StringBuilder patterns = new StringBuilder();
+        for (String directory : directories) {
+            patterns.append(directory).append('\n');
+        }
+        byte[] input = patterns.toString().getBytes(StandardCharsets.UTF_8);
+        GitLineHandler sparseHandler = new GitLineHandler(project, path, SPARSE_CHECKOUT);
+        sparseHandler.addParameters("set", "--cone", "--stdin");
+        sparseHandler.setInputProcessor(stream -> {
+            stream.write(input);
+            stream.close();
+        });
+        GitCommandResult sparseResult = git.runCommand(sparseHandler);
+        if (!sparseResult.success()) {
+            return sparseResult;
+        }
+
+        // Popula o índice e escreve apenas os arquivos dentro do cone
+        GitLineHandler readTreeHandler = new GitLineHandler(project, path, READ_TREE);
+        readTreeHandler.addParameters("-mu", "HEAD");
+        return git.runCommand(readTreeHandler);
+    }
+
+    @Override
+    public @Nullable Set<String> findChangedDirectories(@NotNull GitRepository repository,
+            @NotNull String targetBranch, @NotNull String sourceBranch) {
+        List<String> files = diffNames(repository, targetBranch + "..." + sourceBranch);
+        return files != null ? ChangedPaths.directoriesOf(files) : null;
+    }
+
+    @Override
+    public @Nullable List<String> findChangedPaths(@NotNull GitRepository repository, @NotNull String from,
+            @NotNull String to) {
+        return diffNames(repository, from, to);
+    }
+
+    /** Caminhos alterados segundo git diff --name-only -z, ou null se o diff falhar. */
+    private @Nullable List<String> diffNames(@NotNull GitRepository repository, String... revisions) {
+        GitLineHandler handler = newHandler(repository, GitCommand.DIFF);
+        handler.addParameters("--name-only", "-z", "--no-renames");
+        handler.addParameters(revisions);
+        GitCommandResult result = git.runCommand(handler);
+        if (!result.success()) {
+            return null;
+        }
+        List<String> files = new ArrayList<>();
+        for (String line : result.getOutput()) {
+            for (String file : line.split("\0")) {
+                if (!file.isEmpty()) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    @Override
+    public void removeWorktree(@NotNull GitRepository repository, @NotNull File path) {
+        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), WORKTREE);
+        handler.addParameters("remove", "--force", FileUtil.toSystemIndependentName(path.getPath()));
+        GitCommandResult result = git.runCommand(handler);
+        if (!result.success()) {
+            // O diretório pode ter ficado parcialmente criado; remove-o e limpa os metadados.
+            FileUtil.delete(path);
+            GitLineHandler pruneHandler = new GitLineHandler(project, repository.getRoot(), WORKTREE);
+            pruneHandler.addParameters("prune");
+            git.runCommand(pruneHandler);
+        }
+    }
+
+    @Override
+    public @NotNull Map<String, String> getLocalConfig(@NotNull GitRepository repository,
+            @NotNull String keyPattern) {
+        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.CONFIG);
+        handler.setSilent(true);
+        handler.addParameters("--local", "--get-regexp", keyPattern);
+        // Sem entradas correspondentes o git sai com 1 e nenhuma saída
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String line : git.runCommand(handler).getOutput()) {
+            int separator = line.indexOf(' ');
+            if (separator < 0) {
+                values.put(line, "");
+            } else {
+                values.put(line.substring(0, separator), line.substring(separator + 1));
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public GitCommandResult setLocalConfig(@NotNull GitRepository repository, @NotNull String key,
+            @Nullable String value) {
+        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.CONFIG);
+        handler.addParameters("--local");
+        if (value == null) {
+            handler.addParameters("--unset", key);
+        } else {
+            handler.addParameters(key, value);
+        }
+        return git.runCommand(handler);
+    }
+
+    @Override
+    public @NotNull Set<String> findBranchesContaining(@NotNull GitRepository repository,
+            @NotNull String revision) {
+        return listLocalBranches(repository, "--contains", revision);
+    }
+
+    @Override
+    public @NotNull Set<String> findBranchesMergedInto(@NotNull GitRepository repository,
+            @NotNull String revision) {
+        return listLocalBranches(repository, "--merged", revision);
+    }
+
+    /** Lista as branches locais filtradas por uma opção de alcance do for-each-ref. */
+    private Set<String> listLocalBranches(GitRepository repository, String filter, String revision) {
+        GitLineHandler handler = newHandler(repository, GitCommand.FOR_EACH_REF);
+        // %(refname:short) pode ficar ambíguo quando existe uma tag com o mesmo nome
+        handler.addParameters("--format=%(refname)", filter, revision, "refs/heads");
+        GitCommandResult result = git.runCommand(handler);
+        Set<String> branches = new HashSet<>();
+        if (result.success()) {
+            for (String line : result.getOutput()) {
+                if (line.startsWith("refs/heads/")) {
+                    branches.add(line.trim().substring("refs/heads/".length()));
+                }
+            }
+        }
+        return branches;
+    }
+
+    @Override
+    public @Nullable String resolveRevision(@NotNull GitRepository repository, @NotNull String revision) {
+        GitCatFileProcess catFile = catFileFor(repository, revision);
+        if (catFile != null) {
+            try {
+                return catFile.resolveCommit(revision);
+            } catch (IOException e) {
+                LOG.info("git cat-file failed, falling back to rev-parse", e);
+            }
+        }
+        GitLineHandler handler = newHandler(repository, GitCommand.REV_PARSE);
+        handler.addParameters("--verify", "--quiet", revision + "^{commit}");
+        GitCommandResult result = git.runCommand(handler);
+        if (!result.success() || result.getOutput().isEmpty()) {
+            return null;
+        }
+        return result.getOutput().get(0).trim();
+    }
+
+    @Override
+    public boolean isAncestor(@NotNull GitRepository repository, @NotNull String ancestor,
+            @NotNull String descendant) {
+        GitCatFileProcess catFile = catFileFor(repository, ancestor, descendant);
+        if (catFile != null) {
+            try {
+                String ancestorSha = catFile.resolveCommit(ancestor);
+                String descendantSha = catFile.resolveCommit(descendant);
+                if (ancestorSha == null || descendantSha == null) {
+                    return false;
+                }
+                Boolean reachable = catFile.isAncestor(ancestorSha, descendantSha, MAX_ANCESTRY_WALK);
+                if (reachable != null) {
+                    return reachable;
+                }
+            } catch (IOException e) {
+                LOG.info("git cat-file failed, falling back to merge-base", e);
+            }
+        }
+        GitLineHandler handler = newHandler(repository, GitCommand.MERGE_BASE);
+        handler.addParameters("--is-ancestor", ancestor, descendant);
+        return git.runCommand(handler).success();
+    }
+
+    /**
+     * Processo cat-file do repositório, se puder responder pelas revisões. Ele roda
+     * no working tree principal, então num worktree só atende hashes e refs
+     * compartilhadas (refs/heads, refs/remotes, refs/tags); HEAD, o índice e as
+     * demais refs do worktree vão para o git no diretório do worktree.
+     */
+    private @Nullable GitCatFileProcess catFileFor(@NotNull GitRepository repository, String... revisions) {
+        if (workingDirectory != null) {
+            for (String revision : revisions) {
+                if (!isSharedRevision(revision)) {
+                    return null;
+                }
+            }
+        }
+        return GitCatFileService.getInstance(project).get(repository);
+    }
+
+    private static boolean isSharedRevision(String revision) {
+        if (revision.indexOf(':') >= 0 || revision.indexOf('@') >= 0) {
+            return false;
+        }
+        return FULL_SHA.matcher(revision).matches()
+                || revision.startsWith("refs/heads/")
+                || revision.startsWith("refs/remotes/")
+                || revision.startsWith("refs/tags/");
+    }
+
+    @Override
+    public @NotNull MergePrediction predictMerge(@NotNull GitRepository repository, @NotNull String sourceSha,
+            @NotNull String targetSha) {
+        if (isAncestor(repository, sourceSha, targetSha)) {
+            return MergePrediction.ALREADY_MERGED;
+        }
+        GitLineHandler handler = newHandler(repository, MERGE_TREE);
+        handler.setSilent(true);
+        handler.addParameters("--write-tree", "--name-only", "--no-messages", "-z", targetSha, sourceSha);
+        GitCommandResult result = git.runCommand(handler);
+        if (result.getExitCode() == 0) {
+            return MergePrediction.CLEAN;
+        }
+        if (result.getExitCode() != 1) {
+            // Erro, ou git sem suporte a --write-tree (anterior a 2.38)
+            return MergePrediction.UNKNOWN;
+        }
+        // Saída: "<tree>\0<arquivo>\0<arquivo>\0..."
+        List<String> files = new ArrayList<>();
+        boolean tree = true;
+        for (String line : result.getOutput()) {
+            for (String entry : line.split("\0")) {
+                if (tree) {
+                    tree = false;
+                } else if (!entry.isEmpty()) {
+                    files.add(entry);
+                }
+            }
+        }
+        return new MergePrediction(MergePrediction.Status.CONFLICTS, files);
+    }
+
+    @Override
+    public GitCommandResult updateRef(@NotNull GitRepository repository, @NotNull String refName,
+            @NotNull String newValue, @NotNull String oldValue) {
+        GitLineHandler handler = newHandler(repository, GitCommand.UPDATE_REF);
+        handler.addParameters("-m", "multi-merge", refName, newValue, oldValue);
+        return git.runCommand(handler);
+    }
+
+    @Override
+    public GitCommandResult fetchBranch(@NotNull GitRepository repository, @NotNull String branchName) {
+        GitLineHandler handler = newHandler(repository, GitCommand.FETCH);
+        handler.addParameters("origin", "+refs/heads/" + branchName + ":refs/remotes/origin/" + branchName);
+        return git.runCommand(handler);
+    }
+
+    /**
+     * Calcula o merge apenas na base de objetos. Quando a target é ancestral da
+     * source e não há squash, move a ref como um fast-forward, tal como o git merge.
+     */
+    @Override
+    public GitCommandResult mergeWithoutCheckout(@NotNull GitRepository repository, @NotNull String sourceBranch,
+            @NotNull String targetBranch, boolean squash, String commitMessage) {
+        String targetRef = "refs/heads/" + targetBranch;
+        String targetHead = resolveRevision(repository, targetRef);
+        String sourceHead = resolveRevision(repository, sourceBranch);
+        if (targetHead == null || sourceHead == null) {
+            return GitCommandResult.error(MessageBundle.message("error.revision.not.found",
+                    targetHead == null ? targetBranch : sourceBranch));
+        }
+
+        if (!squash && isAncestor(repository, targetHead, sourceHead)) {
+            return updateRef(repository, targetRef, sourceHead, targetHead);
+        }
+
+        GitLineHandler mergeTreeHandler = newHandler(repository, MERGE_TREE);
+        mergeTreeHandler.addParameters("--write-tree", "--messages", targetHead, sourceHead);
+        GitCommandResult mergeTreeResult = git.runCommand(mergeTreeHandler);
+        if (!mergeTreeResult.success() || mergeTreeResult.getOutput().isEmpty()) {
+            // Conflitos (exit code 1) ou git sem suporte a --write-tree (anterior a 2.38)
+            return mergeTreeResult;
+        }
+        String tree = mergeTreeResult.getOutput().get(0).trim();
+
+        GitLineHandler commitTreeHandler = newHandler(repository, COMMIT_TREE);
+        commitTreeHandler.addParameters(tree, "-p", targetHead);
+        if (!squash) {
+            commitTreeHandler.addParameters("-p", sourceHead);
+        }
+        // Como no git merge, a mensagem informada no diálogo vale só para o squash
+        commitTreeHandler.addParameters("-m", squash && commitMessage != null && !commitMessage.isEmpty()
+                ? commitMessage
+                : defaultMergeMessage(sourceBranch, targetBranch, squash));
+        GitCommandResult commitTreeResult = git.runCommand(commitTreeHandler);
+        if (!commitTreeResult.success() || commitTreeResult.getOutput().isEmpty()) {
+            return commitTreeResult;
+        }
+        String mergeCommit = commitTreeResult.getOutput().get(0).trim();
+        return updateRef(repository, targetRef, mergeCommit, targetHead);
+    }
+
+    /** Mensagem equivalente à gerada pelo git merge. */
+    private static String defaultMergeMessage(String sourceBranch, String targetBranch, boolean squash) {
+        if (squash) {
+            return "Squashed commit of branch '" + sourceBranch + "' into " + targetBranch;
+        }
+        return "Merge branch '" + sourceBranch + "' into " + targetBranch;
+    }
+
+    @Override
+    public @Nullable Map<String, String> listRemoteHeads(@NotNull GitRepository repository) {
+        GitLineHandler handler = newHandler(repository, GitCommand.LS_REMOTE);
+        handler.addParameters("--heads", "origin");
+        GitCommandResult result = git.runCommand(handler);
+        if (!result.success()) {
+            return null;
+        }
+        Map<String, String> heads = new HashMap<>();
+        for (String line : result.getOutput()) {
+            // Formato: <hash>\trefs/heads/<branch>
+            int tab = line.indexOf('\t');
+            if (tab > 0 && line.startsWith("refs/heads/", tab + 1)) {
+                heads.put(line.substring(tab + 1 + "refs/heads/".length()), line.substring(0, tab).trim());
+            }
+        }
+        return heads;
+    }
+
+    @Override
+    public @NotNull RefSnapshot captureRefs(@NotNull GitRepository repository) {
+        GitLineHandler handler = newHandler(repository, GitCommand.FOR_EACH_REF);
+        handler.addParameters("--format=%(objectname) %(refname) %(upstream)", "refs/heads", "refs/remotes/origin");
+        GitCommandResult result = git.runCommand(handler);
+        return RefSnapshot.parse(result.success() ? result.getOutput() : List.of());
+    }
+
+    @Override
+    public @NotNull List<BranchMetadata> readBranchMetadata(@NotNull GitRepository repository,
+            @Nullable String sourceSha) {
+        boolean aheadBehind = sourceSha != null
+                && GitExecutableManager.getInstance().getVersion(project).isLaterOrEqual(AHEAD_BEHIND_VERSION);
+        GitLineHandler handler = newHandler(repository, GitCommand.FOR_EACH_REF);
+        // Consulta feita pelo diálogo a cada troca de source; não polui o console VCS
+        handler.setSilent(true);
+        handler.addParameters(aheadBehind
+                ? "--format=%(objectname) %(committerdate:unix) %(ahead-behind:" + sourceSha + ") %(refname)"
+                : "--format=%(objectname) %(committerdate:unix) %(refname)", "refs/heads");
+        GitCommandResult result = git.runCommand(handler);
+        if (!result.success()) {
+            return aheadBehind ? readBranchMetadata(repository, null) : List.of();
+        }
+        List<BranchMetadata> branches = new ArrayList<>();
+        for (String line : result.getOutput()) {
+            String[] fields = line.trim().split(" ");
+            if (fields.length != (aheadBehind ? 5 : 3) || !fields[fields.length - 1].startsWith("refs/heads/")) {
+                continue;
+            }
+            try {
+                branches.add(new BranchMetadata(
+                        fields[fields.length - 1].substring("refs/heads/".length()),
+                        fields[0],
+                        Long.parseLong(fields[1]),
+                        aheadBehind ? Integer.parseInt(fields[3]) : -1));
+            } catch (NumberFormatException e) {
+                LOG.debug("Unexpected for-each-ref line: " + line);
+            }
+        }
+        return branches;
+    }
+
+    @Override
+    public GitCommandResult fetchBranches(@NotNull GitRepository repository, @NotNull Collection<String> branchNames) {
+        List<String> refspecs = new ArrayList<>();
+        for (String branchName : branchNames) {
+            refspecs.add("+refs/heads/" + branchName + ":refs/remotes/origin/" + branchName);
+        }
+        List<GitCommandResult> results = new ArrayList<>();
+        for (List<String> chunk : chunkArguments(refspecs)) {
+            GitLineHandler handler = newHandler(repository, GitCommand.FETCH);
+            handler.addParameters("origin");
+            handler.addParameters(chunk);
+            results.add(git.runCommand(handler));
+        }
+        return combine(results);
+    }
+
+    /**
+     * Aplica as atualizações numa única transação de git update-ref --stdin:
+     * ou todas as refs são movidas, ou nenhuma.
+     */
+    @Override
+    public GitCommandResult updateRefs(@NotNull GitRepository repository, @NotNull Map<String, String[]> updates) {
+        StringBuilder commands = new StringBuilder();
+        for (Map.Entry<String, String[]> update : updates.entrySet()) {
+            commands.append("update ").append(update.getKey()).append(' ')
+                    .append(update.getValue()[0]).append(' ').append(update.getValue()[1]).append('\n');
+        }
+        byte[] input = commands.toString().getBytes(StandardCharsets.UTF_8);
+        GitLineHandler handler = newHandler(repository, GitCommand.UPDATE_REF);
+        handler.addParameters("-m", "multi-merge", "--stdin");
+        handler.setInputProcessor(stream -> {
+            stream.write(input);
+            stream.close();
+        });
+        return git.runCommand(handler);
+    }
+}
@@ -0,0 +1,51 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.dvcs.repo.VcsRepositoryManager;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import git4idea.repo.GitRepositoryManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Guarda se o projeto tem repositórios Git, para que a atualização da action
+ * não consulte o GitRepositoryManager a cada atualização de menu ou toolbar.
+ * O valor é recalculado na primeira consulta após uma mudança no mapeamento
+ * dos repositórios.
+ */
+@Service(Service.Level.PROJECT)
+public final class GitRepositoryPresence implements Disposable {
+    private final Project project;
+    /** Incrementado a cada mudança de mapeamento; invalida cálculos em curso. */
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile int cachedGeneration = -1;
+    private volatile boolean hasRepositories;
+
+    public GitRepositoryPresence(Project project) {
+        this.project = project;
+        project.getMessageBus().connect(this)
+                .subscribe(VcsRepositoryManager.VCS_REPOSITORY_MAPPING_UPDATED, generation::incrementAndGet);
+    }
+
+    public static GitRepositoryPresence getInstance(@NotNull Project project) {
+        return project.getService(GitRepositoryPresence.class);
+    }
+
+    /**
+     * Se o projeto tem ao menos um repositório Git. Pode ser chamado de qualquer thread.
+     */
+    public boolean hasRepositories() {
+        int current = generation.get();
+        if (cachedGeneration != current) {
+            hasRepositories = !GitRepositoryManager.getInstance(project).getRepositories().isEmpty();
+            cachedGeneration = current;
+        }
+        return hasRepositories;
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
@@ -14,14 +14,24 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
 import git4idea.repo.GitRepository;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import git4idea.commands.GitCommandResult;
 import com.intellij.diff.merge.MergeResult;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 public class MergeConflictResolutionStep {
+    /**
+     * Acima deste tamanho o arquivo não é aberto na janela de merge, que mantém
+     * base, local e remoto inteiros em memória.
+     */
+    private static final long MAX_MERGE_WINDOW_BYTES = 10L * 1024 * 1024;
+
     private final GitRepositoryOperations service;
 
     public MergeConflictResolutionStep(GitRepositoryOperations service) {
@@ -31,23 +41,70 @@ public class MergeConflictResolutionStep {
     public boolean execute(MergeContext context) {
         Project project = context.project;
         GitRepository repository = context.repository;
-        // Lista de arquivos em conflito antes do merge tool
-        Set<VirtualFile> initialConflicted = service.getConflictedFiles(repository);
+        // Lista de arquivos em conflito antes do merge tool, com os blobs de cada estágio
+        VirtualFile workingRoot = service.getWorkingRoot(repository);
+        Set<String> remainingConflicts = new LinkedHashSet<>();
+        List<ConflictedFile> conflicts = new ArrayList<>();
+        List<VirtualFile> conflictedFiles = new ArrayList<>();
+        List<ConflictedFile> nonLoadingConflicts = new ArrayList<>();
+        List<VirtualFile> nonLoadingFiles = new ArrayList<>();
+        for (ConflictedFile conflict : service.listConflicts(repository)) {
+            remainingConflicts.add(conflict.path());
+            VirtualFile file = workingRoot.findFileByRelativePath(conflict.path());
+            if (file == null || !file.isValid()) {
+                continue;
+            }
+            // Classificados pelo arquivo no working tree, antes de ler qualquer blob
+            if (file.getFileType().isBinary() || file.getLength() > MAX_MERGE_WINDOW_BYTES) {
+                nonLoadingConflicts.add(conflict);
+                nonLoadingFiles.add(file);
+            } else {
+                conflicts.add(conflict);
+                conflictedFiles.add(file);
+            }
+        }
+        // O painel de commit deve refletir os conflitos enquanto são resolvidos
+        VcsRefreshCoordinator.getInstance(project).refreshFiles(conflictedFiles);
+        VcsRefreshCoordinator.getInstance(project).refreshFiles(nonLoadingFiles);
         List<VirtualFile> resolvedFiles = new ArrayList<>();
+        List<String> resolvedPaths = new ArrayList<>();
 
+        // Binários e arquivos grandes: o usuário escolhe uma versão, sem carregar conteúdo
         boolean cancelled = false;
-        for (VirtualFile file : initialConflicted) {
-            if (file != null && file.isValid()) {
+        for (int i = 0; i < nonLoadingConflicts.size(); i++) {
+            ConflictedFile conflict = nonLoadingConflicts.get(i);
+            VirtualFile file = nonLoadingFiles.get(i);
+            int choice = askVersion(project, conflict.path(), file);
+            if (choice != Messages.YES && choice != Messages.NO) {
+                cancelled = true;
+                break;
+            }
+            GitCommandResult result = service.resolveWithVersion(repository, conflict, choice == Messages.YES);
+            if (!result.success()) {
+                context.errorMessage = MessageBundle.message("error.mark.resolved",
+                        result.getErrorOutputAsJoinedString());
+                return false;
+            }
+            remainingConflicts.remove(conflict.path());
+        }
+
+        try (ConflictContentPrefetcher prefetcher = new ConflictContentPrefetcher(service, repository, conflicts)) {
+            for (int i = 0; i < conflicts.size() && !cancelled; i++) {
+                VirtualFile file = conflictedFiles.get(i);
+                String path = conflicts.get(i).path();
                 try {
-                    MergeData mergeData = GitMergeUtil.loadMergeData(
-                            project,
-                            repository.getRoot(),
-                            VcsUtil.getFilePath(file),
-                            false);
-                    List<byte[]> contents = Arrays.asList(
-                            mergeData.ORIGINAL,
-                            mergeData.CURRENT,
-                            mergeData.LAST);
+                    List<byte[]> contents = prefetcher.get(i);
+                    if (contents == null) {
+                        MergeData mergeData = GitMergeUtil.loadMergeData(
+                                project,
+                                workingRoot,
+                                VcsUtil.getFilePath(file),
+                                false);
+                        contents = Arrays.asList(
+                                mergeData.ORIGINAL,
+                                mergeData.CURRENT,
+                                mergeData.LAST);
+                    }
                     final boolean[] fileCancelled = { false };
                     MergeRequest request = DiffRequestFactory.getInstance().createMergeRequest(
                             project,
@@ -63,6 +120,7 @@ public class MergeConflictResolutionStep {
                                         || result == MergeResult.LEFT
                                         || result == MergeResult.RIGHT) {
                                     resolvedFiles.add(file);
+                                    resolvedPaths.add(path);
                                 } else if (result == MergeResult.CANCEL) {
                                     fileCancelled[0] = true;
                                 }
@@ -96,6 +154,7 @@ public class MergeConflictResolutionStep {
         if (!resolvedFiles.isEmpty()) {
             try {
                 service.addFilesToIndex(repository, resolvedFiles);
+                resolvedPaths.forEach(remainingConflicts::remove);
                 UpdateChangeListManagerStep.update(project);
             } catch (Exception e) {
                 context.errorMessage = MessageBundle.message("error.mark.resolved", e.getMessage());
@@ -106,8 +165,8 @@ public class MergeConflictResolutionStep {
         // Commit automático
         boolean commitOk = new AutoCommitStep(service).autoCommit(context);
         if (commitOk) {
-            Set<VirtualFile> finalConflicted = service.getConflictedFiles(repository);
-            if (!finalConflicted.isEmpty()) {
+            // Conflitos sem janela de merge (ex.: arquivo removido num dos lados) continuam pendentes
+            if (!remainingConflicts.isEmpty()) {
                 context.errorMessage = MessageBundle.message("error.unresolved.conflicts");
                 context.allSuccessful = false;
                 return false;
@@ -118,4 +177,26 @@ public class MergeConflictResolutionStep {
         context.allSuccessful = commitOk;
         return commitOk;
     }
+
+    /**
+     * Pergunta qual versão de um arquivo binário ou grande deve ser mantida.
+     *
+     * @return {@link Messages#YES} para a local, {@link Messages#NO} para a remota,
+     *         ou outro valor se o usuário cancelou o merge.
+     */
+    private static int askVersion(Project project, String path, VirtualFile file) {
+        int[] choice = { Messages.CANCEL };
+        ApplicationManager.getApplication().invokeAndWait(
+                () -> choice[0] = Messages.showYesNoCancelDialog(
+                        project,
+                        MessageBundle.message("merge.version.message", path,
+                                StringUtil.formatFileSize(file.getLength())),
+                        MessageBundle.message("merge.dialog.title", file.getName()),
+                        MessageBundle.message("merge.version.local"),
+                        MessageBundle.message("merge.version.remote"),
+                        MessageBundle.message("merge.version.cancel"),
+                        Messages.getQuestionIcon()),
+                ModalityState.defaultModalityState());
+        return choice[0];
+    }
 }
\ No newline at end of file
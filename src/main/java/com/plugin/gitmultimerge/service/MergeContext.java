@@ -29,6 +29,19 @@ public class MergeContext {
     public String errorMessage;
     public String atualBranch;
 
+    // Target já sincronizada com o remote na etapa inicial (SyncTargetsStep)
+    public boolean targetSynced;
+
+    // Refs do repositório capturadas no início da execução e mantidas atualizadas
+    public RefSnapshot refs;
+
+    // Classificação da target no planejamento inicial (PlanTargetsStep), se houver
+    public TargetPlan targetPlan;
+
+    // Push da target adiado para o envio em lote no final da execução
+    public boolean deferPush;
+    public final List<String> pendingPushes = new ArrayList<>();
+
     /**
      * Construtor padrão.
      *
@@ -0,0 +1,50 @@
+package com.plugin.gitmultimerge.service;
+
+import com.plugin.gitmultimerge.util.MessageBundle;
+
+/**
+ * Estratégia de execução do fluxo de merge sobre as branches target.
+ */
+public enum MergeExecutionMode {
+    /** Processa as targets uma a uma no working tree principal. */
+    SEQUENTIAL("options.mode.sequential"),
+    /** Processa as targets em paralelo, cada uma num git worktree temporário. */
+    PARALLEL_WORKTREES("options.mode.parallel.worktrees"),
+    /**
+     * Como PARALLEL_WORKTREES, mas cada worktree é um sparse checkout limitado aos
+     * diretórios que o merge da source pode alterar.
+     */
+    SPARSE_WORKTREES("options.mode.sparse.worktrees"),
+    /**
+     * Processa as targets uma a uma no working tree principal, enviando cada target
+     * mesclada em background enquanto a próxima é mesclada.
+     */
+    PIPELINED("options.mode.pipelined"),
+    /**
+     * Processa as targets uma a uma sem checkout, calculando o merge apenas na base
+     * de objetos; faz checkout somente quando há conflitos a resolver.
+     */
+    CHECKOUT_FREE("options.mode.checkout.free");
+
+    private final String messageKey;
+
+    MergeExecutionMode(String messageKey) {
+        this.messageKey = messageKey;
+    }
+
+    /**
+     * Se o modo processa as targets em paralelo, em git worktrees temporários.
+     */
+    public boolean usesWorktrees() {
+        return this == PARALLEL_WORKTREES || this == SPARSE_WORKTREES;
+    }
+
+    /**
+     * Texto internacionalizado exibido no diálogo.
+     *
+     * @return Nome do modo no idioma do utilizador.
+     */
+    public String getDisplayName() {
+        return MessageBundle.message(messageKey);
+    }
+}
@@ -0,0 +1,32 @@
+package com.plugin.gitmultimerge.service;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Resultado de um merge de teste da source numa target, calculado sem checkout.
+ *
+ * @param status          Resultado previsto.
+ * @param conflictedFiles Arquivos em conflito; vazia se não houver conflitos.
+ */
+public record MergePrediction(@NotNull Status status, @NotNull List<String> conflictedFiles) {
+    public static final MergePrediction ALREADY_MERGED = new MergePrediction(Status.ALREADY_MERGED, List.of());
+    public static final MergePrediction CLEAN = new MergePrediction(Status.CLEAN, List.of());
+    public static final MergePrediction UNKNOWN = new MergePrediction(Status.UNKNOWN, List.of());
+
+    /**
+     * Resultados possíveis, do menos para o mais grave. Com vários repositórios,
+     * vale o mais grave entre eles.
+     */
+    public enum Status {
+        /** A target já contém a source. */
+        ALREADY_MERGED,
+        /** O merge pode ser feito sem conflitos. */
+        CLEAN,
+        /** Não foi possível prever (ex.: git anterior a 2.38). */
+        UNKNOWN,
+        /** O merge terá conflitos. */
+        CONFLICTS
+    }
+}
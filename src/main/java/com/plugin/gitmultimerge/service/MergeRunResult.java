@@ -0,0 +1,68 @@
+package com.plugin.gitmultimerge.service;
+
+import com.plugin.gitmultimerge.exception.MultiMergeOperationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acumula os resultados do processamento das branches target.
+ * Os métodos são sincronizados para permitir a agregação a partir de
+ * execuções paralelas.
+ */
+class MergeRunResult {
+    final List<String> allSuccessfulMerges = new ArrayList<>();
+    final List<String> allFailedMerges = new ArrayList<>();
+    /** Targets mescladas cujo push foi adiado para o envio em lote. */
+    final List<String> allPendingPushes = new ArrayList<>();
+    boolean allSuccessful = true;
+    /** Branch em checkout no working tree principal ao final do processamento. */
+    String currentBranch;
+    /** Falha que interrompeu o processamento, relançada após o push em lote. */
+    MultiMergeOperationException abortCause;
+    /** Mensagem do erro que encerrou a execução no repositório, se houver. */
+    String failureMessage;
+
+    /** Resultado de uma execução encerrada por erro antes do resumo. */
+    static MergeRunResult failed(String message) {
+        MergeRunResult result = new MergeRunResult();
+        result.allSuccessful = false;
+        result.failureMessage = message;
+        return result;
+    }
+
+    /** Agrega o resultado de um contexto de merge. */
+    synchronized void add(MergeContext context) {
+        allSuccessfulMerges.addAll(context.successfulMerges);
+        allFailedMerges.addAll(context.failedMerges);
+        allPendingPushes.addAll(context.pendingPushes);
+        if (!context.allSuccessful) {
+            allSuccessful = false;
+        }
+    }
+
+    /** Agrega o resultado de outra execução. */
+    synchronized void addAll(MergeRunResult other) {
+        if (other.currentBranch != null) {
+            currentBranch = other.currentBranch;
+        }
+        if (other.abortCause != null) {
+            abortCause = other.abortCause;
+        }
+        allSuccessfulMerges.addAll(other.allSuccessfulMerges);
+        allFailedMerges.addAll(other.allFailedMerges);
+        allPendingPushes.addAll(other.allPendingPushes);
+        if (!other.allSuccessful) {
+            allSuccessful = false;
+        }
+    }
+
+    /** Move uma target para a lista de falhas após a rejeição do push. */
+    synchronized void markPushFailed(String branch) {
+        allSuccessfulMerges.remove(branch);
+        if (!allFailedMerges.contains(branch)) {
+            allFailedMerges.add(branch);
+        }
+        allSuccessful = false;
+    }
+}
@@ -0,0 +1,97 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import git4idea.repo.GitRepository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Executa o fluxo de multi-merge em vários repositórios ao mesmo tempo.
+ * Os repositórios são independentes: uma falha num deles não interrompe os
+ * demais e fica registrada apenas no seu resultado.
+ */
+class MultiRepositoryExecutor {
+    private static final Logger LOG = Logger.getInstance(MultiRepositoryExecutor.class);
+    private static final long AWAIT_STEP_MS = 100;
+
+    private final int maxParallelRepositories;
+
+    /**
+     * Construtor padrão.
+     *
+     * @param maxParallelRepositories Número máximo de repositórios processados ao mesmo tempo.
+     */
+    MultiRepositoryExecutor(int maxParallelRepositories) {
+        this.maxParallelRepositories = Math.max(1, maxParallelRepositories);
+    }
+
+    /**
+     * Executa a operação em cada repositório e aguarda todos terminarem.
+     *
+     * @param repositories Repositórios a processar.
+     * @param operation    Operação por repositório; devolve null se o repositório
+     *                     não tiver nada a fazer.
+     * @param indicator    Indicador de progresso compartilhado.
+     * @return Resultado por repositório, na ordem recebida.
+     */
+    Map<GitRepository, MergeRunResult> execute(List<GitRepository> repositories,
+            Function<GitRepository, MergeRunResult> operation, ProgressIndicator indicator) {
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+                "GitMultiMerge.Repositories", maxParallelRepositories);
+        Map<GitRepository, Future<MergeRunResult>> futures = new LinkedHashMap<>();
+        try {
+            for (GitRepository repository : repositories) {
+                // O indicador é compartilhado: só a Task o inicia e encerra
+                futures.put(repository, executor.submit(() -> {
+                    MergeRunResult[] result = new MergeRunResult[1];
+                    ProgressManager.getInstance().executeProcessUnderProgress(
+                            () -> result[0] = operation.apply(repository), indicator);
+                    return result[0];
+                }));
+            }
+            Map<GitRepository, MergeRunResult> results = new LinkedHashMap<>();
+            for (Map.Entry<GitRepository, Future<MergeRunResult>> entry : futures.entrySet()) {
+                results.put(entry.getKey(), await(entry.getValue(), indicator));
+            }
+            return results;
+        } finally {
+            for (Future<MergeRunResult> future : futures.values()) {
+                future.cancel(false);
+            }
+            executor.shutdown();
+        }
+    }
+
+    private static MergeRunResult await(Future<MergeRunResult> future, ProgressIndicator indicator) {
+        while (true) {
+            indicator.checkCanceled();
+            try {
+                return future.get(AWAIT_STEP_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Continua a aguardar, verificando o cancelamento
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ProcessCanceledException canceled) {
+                    throw canceled;
+                }
+                LOG.warn("Unexpected failure while merging repository", e.getCause());
+                String message = e.getCause() != null ? e.getCause().getMessage() : null;
+                return MergeRunResult.failed(message != null ? message : e.getClass().getSimpleName());
+            }
+        }
+    }
+}
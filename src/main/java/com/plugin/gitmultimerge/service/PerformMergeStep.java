@@ -29,6 +29,7 @@ public class PerformMergeStep implements MergeStep {
                 context.commitMessage);
         if (mergeResult.success()) {
             context.successfulMerges.add(context.targetBranch);
+            context.refs.localUpdated(context.targetBranch, null);
             return StepResult.SUCCESS;
         }
 
@@ -48,5 +49,6 @@ public class PerformMergeStep implements MergeStep {
     @Override
     public void success(MergeContext context) {
         context.successfulMerges.add(context.targetBranch);
+        context.refs.localUpdated(context.targetBranch, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.plugin.gitmultimerge.service;
+
+import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
+import com.plugin.gitmultimerge.util.MessageBundle;
+import com.plugin.gitmultimerge.util.NotificationHelper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Etapa de planejamento executada após a sincronização e antes de qualquer
+ * checkout. Duas consultas git for-each-ref (--contains e --merged) sobre as
+ * branches locais classificam todas as targets de uma vez; as que já contêm a
+ * source são concluídas sem passar pelo resto do fluxo, restando apenas o push
+ * das que ainda não existem no remote.
+ */
+public class PlanTargetsStep {
+    private final GitRepositoryOperations service;
+
+    /** Resultado do planejamento: targets que ainda precisam de merge e o plano da execução. */
+    static final class Outcome {
+        final List<String> targets;
+        final RunPlan plan;
+
+        Outcome(List<String> targets, RunPlan plan) {
+            this.targets = targets;
+            this.plan = plan;
+        }
+    }
+
+    /**
+     * Construtor padrão.
+     *
+     * @param service Serviço de operações Git.
+     */
+    public PlanTargetsStep(GitRepositoryOperations service) {
+        this.service = service;
+    }
+
+    /**
+     * Classifica as targets e exibe o plano no indicador de progresso.
+     *
+     * @param context Contexto da branch source.
+     * @param sync    Resultado da sincronização inicial.
+     * @param result  Resultado onde as targets já atualizadas são registradas como sucesso,
+     *                e as que ainda não existem no remote como pushes pendentes.
+     * @return Targets a processar e o plano da execução.
+     */
+    Outcome execute(MergeContext context, SyncTargetsStep.Outcome sync, MergeRunResult result) {
+        context.indicator.setText(MessageBundle.message("progress.planning", sync.targets.size()));
+        Set<String> containing = service.findBranchesContaining(context.repository, context.sourceBranch);
+        Set<String> merged = service.findBranchesMergedInto(context.repository, context.sourceBranch);
+
+        Map<String, TargetPlan> plans = new HashMap<>();
+        List<String> remaining = new ArrayList<>();
+        List<String> upToDate = new ArrayList<>();
+        int fastForwards = 0;
+        for (String target : sync.targets) {
+            TargetPlan plan;
+            if (containing.contains(target)) {
+                plan = TargetPlan.UP_TO_DATE;
+                upToDate.add(target);
+            } else if (merged.contains(target)) {
+                plan = TargetPlan.FAST_FORWARD;
+                fastForwards++;
+                remaining.add(target);
+            } else {
+                plan = TargetPlan.MERGE;
+                remaining.add(target);
+            }
+            plans.put(target, plan);
+        }
+
+        if (!upToDate.isEmpty()) {
+            result.allSuccessfulMerges.addAll(upToDate);
+            // Targets ainda sem branch remota continuam sendo publicadas, como no fluxo por target
+            if (context.pushAfterMerge) {
+                for (String target : upToDate) {
+                    if (!context.refs.hasRemoteBranch(target)) {
+                        result.allPendingPushes.add(target);
+                    }
+                }
+            }
+            NotificationHelper.notifyInfo(
+                    context.project,
+                    NotificationHelper.DEFAULT_TITLE,
+                    MessageBundle.message(upToDate.size() == 1
+                            ? "notification.already.up.to.date"
+                            : "notification.already.up.to.date.many",
+                            String.join(", ", upToDate), context.sourceBranch));
+        }
+        context.indicator.setText2(MessageBundle.message("progress.plan",
+                remaining.size() - fastForwards, fastForwards, upToDate.size()));
+        return new Outcome(remaining, new RunPlan(context.refs, sync.synchronizedTargets, plans));
+    }
+}
@@ -4,7 +4,6 @@ import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
 import com.plugin.gitmultimerge.service.interfaces.MergeStep;
 import com.plugin.gitmultimerge.util.MessageBundle;
 import com.sun.istack.Nullable;
-import git4idea.GitRemoteBranch;
 import git4idea.commands.GitCommandResult;
 
 /**
@@ -51,12 +50,20 @@ public class PushBranchStep implements MergeStep {
             branchName = context.targetBranch;
         }
 
+        if (context.deferPush && branchName.equals(context.targetBranch)) {
+            // O push será feito em lote com as demais targets
+            if (!context.pendingPushes.contains(branchName)) {
+                context.pendingPushes.add(branchName);
+            }
+            return StepResult.SUCCESS;
+        }
+
         if (remoteNotExists == null) {
-            GitRemoteBranch remoteBranch = service.findRemoteBranch(context.repository, branchName);
-            remoteNotExists = remoteBranch == null;
+            remoteNotExists = !context.refs.hasRemoteBranch(branchName);
         }
         GitCommandResult pushResult = service.push(context.repository, branchName, remoteNotExists);
         if (pushResult.success()) {
+            context.refs.remoteUpdated(branchName, context.refs.localHead(branchName), remoteNotExists);
             return StepResult.SUCCESS;
         }
 
@@ -0,0 +1,122 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fila limitada de pushes consumida por uma única thread em background, para que
+ * o envio de uma target ao remote ocorra enquanto a próxima já é mesclada
+ * localmente. As targets acumuladas na fila no momento do envio seguem juntas
+ * num único git push.
+ */
+class PushPipeline {
+    private static final Logger LOG = Logger.getInstance(PushPipeline.class);
+    private static final long AWAIT_STEP_MS = 100;
+
+    private final BatchPushStep pushStep;
+    private final MergeContext sourceContext;
+    private final BlockingQueue<String> queue;
+    private final ExecutorService executor;
+    /** Targets rejeitadas pelo remote; acessada apenas pela thread de push até o close. */
+    private final List<String> rejected = new ArrayList<>();
+    /** Targets que não entraram na fila por cancelamento; acessada apenas pela thread do merge. */
+    private final List<String> notQueued = new ArrayList<>();
+
+    /**
+     * Construtor padrão.
+     *
+     * @param pushStep      Etapa usada para cada envio.
+     * @param sourceContext Contexto da branch source, usado para o repositório e o indicador.
+     * @param capacity      Número máximo de targets aguardando envio; acima dele o
+     *                      merge da próxima target espera.
+     */
+    PushPipeline(BatchPushStep pushStep, MergeContext sourceContext, int capacity) {
+        this.pushStep = pushStep;
+        this.sourceContext = sourceContext;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("GitMultiMerge.Push", 1);
+    }
+
+    /**
+     * Enfileira as targets para envio, bloqueando enquanto a fila estiver cheia.
+     * Se a operação for cancelada durante a espera, as targets que não entraram
+     * na fila são devolvidas pelo {@link #close()}.
+     *
+     * @param branches Targets mescladas a enviar.
+     */
+    void submit(List<String> branches) {
+        if (branches.isEmpty()) {
+            return;
+        }
+        ProgressIndicator indicator = sourceContext.indicator;
+        for (int i = 0; i < branches.size(); i++) {
+            try {
+                while (!queue.offer(branches.get(i), AWAIT_STEP_MS, TimeUnit.MILLISECONDS)) {
+                    indicator.checkCanceled();
+                }
+            } catch (ProcessCanceledException e) {
+                notQueued.addAll(branches.subList(i, branches.size()));
+                throw e;
+            } catch (InterruptedException e) {
+                notQueued.addAll(branches.subList(i, branches.size()));
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(e);
+            }
+        }
+        executor.execute(() -> ProgressManager.getInstance().executeProcessUnderProgress(this::drain, indicator));
+    }
+
+    /** Envia tudo o que estiver na fila; tarefas posteriores encontram a fila vazia. */
+    private void drain() {
+        List<String> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            rejected.addAll(pushStep.pushBranches(sourceContext, batch, false));
+        } catch (ProcessCanceledException e) {
+            rejected.addAll(batch);
+        } catch (Exception e) {
+            LOG.warn("Background push failed for " + batch, e);
+            rejected.addAll(batch);
+        }
+    }
+
+    /**
+     * Aguarda o envio das targets pendentes e devolve as que foram rejeitadas.
+     * Se a operação for cancelada, as targets ainda na fila não são enviadas e
+     * também são devolvidas.
+     *
+     * @return Targets cujo push não foi aceito ou não chegou a ser feito.
+     */
+    List<String> close() {
+        executor.shutdown();
+        List<String> cancelled = new ArrayList<>();
+        try {
+            while (!executor.awaitTermination(AWAIT_STEP_MS, TimeUnit.MILLISECONDS)) {
+                if (sourceContext.indicator.isCanceled()) {
+                    // Retira da fila para que as tarefas pendentes não enviem nada
+                    queue.drainTo(cancelled);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<String> notPushed = new ArrayList<>(rejected);
+        notPushed.addAll(cancelled);
+        notPushed.addAll(notQueued);
+        queue.drainTo(notPushed);
+        return notPushed;
+    }
+}
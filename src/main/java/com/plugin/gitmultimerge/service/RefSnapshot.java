@@ -0,0 +1,106 @@
+package com.plugin.gitmultimerge.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fotografia das refs do repositório capturada uma vez no início da execução
+ * (branches locais, branches remotas de origin e upstreams), indexada pelo nome
+ * curto da branch. As etapas consultam e atualizam esta fotografia em vez de
+ * percorrer a coleção de branches do repositório a cada chamada.
+ * Um hash null indica uma ref que existe, mas cujo valor atual não é conhecido
+ * (ex.: após um merge).
+ */
+public final class RefSnapshot {
+    private static final String HEADS_PREFIX = "refs/heads/";
+    private static final String REMOTE_PREFIX = "refs/remotes/origin/";
+
+    private final Map<String, String> localHeads = new HashMap<>();
+    private final Map<String, String> remoteHeads = new HashMap<>();
+    private final Map<String, String> upstreams = new HashMap<>();
+
+    /**
+     * Lê as linhas "&lt;hash&gt; &lt;refname&gt; &lt;upstream&gt;" do git for-each-ref.
+     *
+     * @param lines Saída de for-each-ref sobre refs/heads e refs/remotes/origin.
+     * @return Fotografia das refs.
+     */
+    static RefSnapshot parse(@NotNull Iterable<String> lines) {
+        RefSnapshot snapshot = new RefSnapshot();
+        for (String line : lines) {
+            String[] parts = line.split(" ", 3);
+            if (parts.length < 2) {
+                continue;
+            }
+            String sha = parts[0];
+            String refName = parts[1].trim();
+            if (refName.startsWith(HEADS_PREFIX)) {
+                String branch = refName.substring(HEADS_PREFIX.length());
+                snapshot.localHeads.put(branch, sha);
+                if (parts.length == 3 && parts[2].trim().startsWith(REMOTE_PREFIX)) {
+                    snapshot.upstreams.put(branch, parts[2].trim().substring(REMOTE_PREFIX.length()));
+                }
+            } else if (refName.startsWith(REMOTE_PREFIX) && !refName.equals(REMOTE_PREFIX + "HEAD")) {
+                snapshot.remoteHeads.put(refName.substring(REMOTE_PREFIX.length()), sha);
+            }
+        }
+        return snapshot;
+    }
+
+    /** Se a branch local existe. */
+    public synchronized boolean hasLocalBranch(@NotNull String branch) {
+        return localHeads.containsKey(branch);
+    }
+
+    /** Hash da branch local, ou null se não existir ou não for conhecido. */
+    public synchronized @Nullable String localHead(@NotNull String branch) {
+        return localHeads.get(branch);
+    }
+
+    /** Se a branch existe em origin (refs/remotes/origin). */
+    public synchronized boolean hasRemoteBranch(@NotNull String branch) {
+        return remoteHeads.containsKey(branch);
+    }
+
+    /** Hash da branch em origin, ou null se não existir ou não for conhecido. */
+    public synchronized @Nullable String remoteHead(@NotNull String branch) {
+        return remoteHeads.get(branch);
+    }
+
+    /** Branch de origin rastreada pela branch local, ou null se não houver. */
+    public synchronized @Nullable String upstreamOf(@NotNull String branch) {
+        return upstreams.get(branch);
+    }
+
+    /** Registra o novo valor de uma branch local criada ou movida. */
+    public synchronized void localUpdated(@NotNull String branch, @Nullable String sha) {
+        localHeads.put(branch, sha);
+    }
+
+    /** Registra a remoção de uma branch local. */
+    public synchronized void localDeleted(@NotNull String branch) {
+        localHeads.remove(branch);
+        upstreams.remove(branch);
+    }
+
+    /**
+     * Registra o novo valor de uma branch em origin após fetch ou push.
+     *
+     * @param tracked Se true, a branch local passa a rastrear a remota (push -u).
+     */
+    public synchronized void remoteUpdated(@NotNull String branch, @Nullable String sha, boolean tracked) {
+        remoteHeads.put(branch, sha);
+        if (tracked) {
+            upstreams.put(branch, branch);
+        }
+    }
+
+    /** Registra a remoção de uma branch em origin. */
+    public synchronized void remoteDeleted(@NotNull String branch) {
+        remoteHeads.remove(branch);
+        upstreams.values().removeIf(branch::equals);
+    }
+}
@@ -3,6 +3,8 @@ package com.plugin.gitmultimerge.service;
 import com.plugin.gitmultimerge.util.NotificationHelper;
 import git4idea.commands.GitCommandResult;
 
+import java.util.stream.Stream;
+
 public class ResultFailStep {
     private final GitCommandResult result;
     private final String message;
@@ -16,7 +18,8 @@ public class ResultFailStep {
         boolean conflict = result.getOutput().stream().anyMatch(line -> line.toUpperCase().contains("CONFLICT"));
         StepResult stepResult = conflict ? StepResult.CONFLICT : StepResult.FAILURE;
 
-        if (stepResult == StepResult.CONFLICT) {
+        // Conflitos resolvidos pelo rerere não precisam do usuário; só os novos são notificados
+        if (stepResult == StepResult.CONFLICT && !allResolvedByRerere()) {
             NotificationHelper.notifyWarning(
                     context.project,
                     NotificationHelper.DEFAULT_TITLE,
@@ -25,4 +28,17 @@ public class ResultFailStep {
 
         return stepResult;
     }
+
+    /**
+     * Se cada arquivo em conflito foi resolvido com uma resolução registrada
+     * ("Resolved 'x' using previous resolution." ou "Staged 'x' ..."). O git
+     * escreve os conflitos no stdout e as mensagens do rerere no stderr.
+     */
+    private boolean allResolvedByRerere() {
+        long conflicts = result.getOutput().stream().filter(line -> line.startsWith("CONFLICT")).count();
+        long reused = Stream.concat(result.getOutput().stream(), result.getErrorOutput().stream())
+                .filter(line -> line.endsWith("using previous resolution."))
+                .count();
+        return conflicts > 0 && reused >= conflicts;
+    }
 }
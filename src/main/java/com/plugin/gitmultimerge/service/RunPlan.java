@@ -0,0 +1,36 @@
+package com.plugin.gitmultimerge.service;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estado de cada target conhecido antes do processamento: se já foi
+ * sincronizada com o remote e como foi classificada pelo planejamento,
+ * junto com as refs capturadas para a execução.
+ */
+final class RunPlan {
+    final RefSnapshot refs;
+    private final Set<String> synchronizedTargets;
+    private final Map<String, TargetPlan> plans;
+
+    RunPlan(RefSnapshot refs, Set<String> synchronizedTargets, Map<String, TargetPlan> plans) {
+        this.refs = refs;
+        this.synchronizedTargets = synchronizedTargets;
+        this.plans = plans;
+    }
+
+    /** Se a target já está sincronizada com o remote (SyncTargetsStep). */
+    boolean isSynchronized(String target) {
+        return synchronizedTargets.contains(target);
+    }
+
+    /**
+     * Classificação da target, ou null se o planejamento não a avaliou.
+     */
+    @Nullable
+    TargetPlan planOf(String target) {
+        return plans.get(target);
+    }
+}
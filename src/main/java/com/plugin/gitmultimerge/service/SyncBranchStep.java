@@ -2,7 +2,6 @@ package com.plugin.gitmultimerge.service;
 
 import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
 import com.plugin.gitmultimerge.service.interfaces.MergeStep;
-import git4idea.GitRemoteBranch;
 
 public class SyncBranchStep implements MergeStep {
     private final GitRepositoryOperations service;
@@ -18,9 +17,11 @@ public class SyncBranchStep implements MergeStep {
 
     @Override
     public StepResult execute(MergeContext context) {
+        if (context.targetSynced) {
+            return StepResult.SUCCESS;
+        }
         // Verifica se a branch remota já existe.
-        GitRemoteBranch remoteBranch = service.findRemoteBranch(context.repository, context.targetBranch);
-        boolean needsSetUpStream = remoteBranch == null;
+        boolean needsSetUpStream = !context.refs.hasRemoteBranch(context.targetBranch);
 
         if (context.pushAfterMerge && needsSetUpStream){
             return new PushBranchStep(service, true).execute(context);
@@ -0,0 +1,88 @@
+package com.plugin.gitmultimerge.service;
+
+import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
+import com.plugin.gitmultimerge.service.interfaces.MergeStep;
+import com.plugin.gitmultimerge.util.MessageBundle;
+import git4idea.commands.GitCommandResult;
+
+/**
+ * Etapa que sincroniza a branch target com o remote sem checkout: faz fetch da
+ * branch e avança a ref local com update-ref quando é um fast-forward.
+ * Só faz checkout e pull quando a branch local divergiu do remote.
+ */
+public class SyncRefStep implements MergeStep {
+    private final GitRepositoryOperations service;
+
+    /**
+     * Construtor padrão.
+     *
+     * @param service Serviço de operações Git.
+     */
+    public SyncRefStep(GitRepositoryOperations service) {
+        this.service = service;
+    }
+
+    @Override
+    public StepResult execute(MergeContext context) {
+        if (context.targetSynced) {
+            return StepResult.SUCCESS;
+        }
+        if (context.targetBranch.equals(context.atualBranch)) {
+            // A branch em checkout precisa atualizar também o working tree.
+            return new PullBranchStep(service).execute(context);
+        }
+
+        if (!context.refs.hasRemoteBranch(context.targetBranch)) {
+            if (context.pushAfterMerge) {
+                return new PushBranchStep(service, true).execute(context);
+            }
+            return StepResult.SUCCESS;
+        }
+
+        GitCommandResult fetchResult = service.fetchBranch(context.repository, context.targetBranch);
+        if (!fetchResult.success()) {
+            context.errorMessage = MessageBundle.message("error.pull", context.targetBranch,
+                    String.join("\n", fetchResult.getErrorOutput()));
+            return StepResult.FAILURE;
+        }
+
+        String localRef = "refs/heads/" + context.targetBranch;
+        String localHead = service.resolveRevision(context.repository, localRef);
+        String remoteHead = service.resolveRevision(context.repository, "refs/remotes/origin/" + context.targetBranch);
+        context.refs.remoteUpdated(context.targetBranch, remoteHead, false);
+        if (localHead == null || remoteHead == null || localHead.equals(remoteHead)
+                || service.isAncestor(context.repository, remoteHead, localHead)) {
+            return StepResult.SUCCESS;
+        }
+
+        if (service.isAncestor(context.repository, localHead, remoteHead)) {
+            GitCommandResult updateResult = service.updateRef(context.repository, localRef, remoteHead, localHead);
+            if (updateResult.success()) {
+                context.refs.localUpdated(context.targetBranch, remoteHead);
+                return StepResult.SUCCESS;
+            }
+            context.errorMessage = MessageBundle.message("error.pull", context.targetBranch,
+                    String.join("\n", updateResult.getErrorOutput()));
+            return StepResult.FAILURE;
+        }
+
+        // Histórico divergente: é necessário um merge real no working tree.
+        StepResult checkoutResult = new CheckoutBranchStep(service).execute(context);
+        if (checkoutResult != StepResult.SUCCESS) {
+            return checkoutResult;
+        }
+        return new PullBranchStep(service).execute(context);
+    }
+
+    @Override
+    public StepResult failure(MergeContext context) {
+        context.allSuccessful = false;
+        context.failedMerges.add(context.targetBranch);
+        return StepResult.SKIPPED;
+    }
+
+    @Override
+    public void success(MergeContext context) {
+        // Não há ações específicas a serem realizadas em caso de sucesso nesta etapa.
+    }
+}
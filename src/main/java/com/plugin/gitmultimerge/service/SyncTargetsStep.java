@@ -0,0 +1,130 @@
+package com.plugin.gitmultimerge.service;
+
+import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
+import com.plugin.gitmultimerge.util.MessageBundle;
+import com.plugin.gitmultimerge.util.NotificationHelper;
+import git4idea.commands.GitCommandResult;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Etapa inicial que sincroniza todas as branches target com o remote antes de
+ * qualquer merge: um git ls-remote identifica as branches remotas, um único
+ * git fetch atualiza as refs de rastreamento e uma transação de git update-ref
+ * avança as branches locais que não estão em checkout.
+ * Targets que divergiram do remote são reportadas de imediato e excluídas.
+ */
+public class SyncTargetsStep {
+    private static final String HEADS_PREFIX = "refs/heads/";
+
+    private final GitRepositoryOperations service;
+
+    /** Targets a processar e as que já estão sincronizadas com o remote. */
+    static final class Outcome {
+        final List<String> targets;
+        final Set<String> synchronizedTargets;
+
+        Outcome(List<String> targets, Set<String> synchronizedTargets) {
+            this.targets = targets;
+            this.synchronizedTargets = synchronizedTargets;
+        }
+    }
+
+    /**
+     * Construtor padrão.
+     *
+     * @param service Serviço de operações Git.
+     */
+    public SyncTargetsStep(GitRepositoryOperations service) {
+        this.service = service;
+    }
+
+    /**
+     * Sincroniza as targets.
+     *
+     * @param context       Contexto da branch source.
+     * @param targets       Branches target selecionadas.
+     * @param currentBranch Branch em checkout, que continua a ser atualizada por pull.
+     * @param result        Resultado onde as targets divergentes são registadas como falha.
+     * @return Targets a processar e quais delas já estão sincronizadas.
+     */
+    Outcome execute(MergeContext context, List<String> targets, String currentBranch, MergeRunResult result) {
+        context.indicator.setText(MessageBundle.message("progress.syncing", targets.size()));
+        Map<String, String> remoteHeads = service.listRemoteHeads(context.repository);
+        if (remoteHeads == null) {
+            // Remote inacessível: mantém a sincronização por target
+            return new Outcome(targets, Set.of());
+        }
+
+        RefSnapshot refs = context.refs;
+        List<String> toFetch = new ArrayList<>();
+        for (String target : targets) {
+            String remoteHead = remoteHeads.get(target);
+            if (remoteHead != null && !remoteHead.equals(refs.remoteHead(target))) {
+                toFetch.add(target);
+            }
+        }
+        if (!toFetch.isEmpty()) {
+            GitCommandResult fetchResult = service.fetchBranches(context.repository, toFetch);
+            if (!fetchResult.success()) {
+                NotificationHelper.notifyWarning(context.project, NotificationHelper.DEFAULT_TITLE,
+                        MessageBundle.message("error.pull", String.join(", ", toFetch),
+                                fetchResult.getErrorOutputAsJoinedString()));
+                return new Outcome(targets, Set.of());
+            }
+            for (String target : toFetch) {
+                refs.remoteUpdated(target, remoteHeads.get(target), false);
+            }
+        }
+
+        List<String> remaining = new ArrayList<>();
+        Set<String> synced = new HashSet<>();
+        List<String> diverged = new ArrayList<>();
+        Map<String, String[]> fastForwards = new LinkedHashMap<>();
+        for (String target : targets) {
+            String localHead = refs.localHead(target);
+            String remoteHead = remoteHeads.get(target);
+            if (target.equals(currentBranch) || localHead == null) {
+                remaining.add(target);
+                continue;
+            }
+            if (remoteHead == null || remoteHead.equals(localHead)
+                    || service.isAncestor(context.repository, remoteHead, localHead)) {
+                synced.add(target);
+                remaining.add(target);
+            } else if (service.isAncestor(context.repository, localHead, remoteHead)) {
+                fastForwards.put(HEADS_PREFIX + target, new String[] { remoteHead, localHead });
+                synced.add(target);
+                remaining.add(target);
+            } else {
+                diverged.add(target);
+                result.allFailedMerges.add(target);
+                result.allSuccessful = false;
+            }
+        }
+
+        if (!fastForwards.isEmpty()) {
+            GitCommandResult updateResult = service.updateRefs(context.repository, fastForwards);
+            for (Map.Entry<String, String[]> fastForward : fastForwards.entrySet()) {
+                String target = fastForward.getKey().substring(HEADS_PREFIX.length());
+                if (updateResult.success()) {
+                    refs.localUpdated(target, fastForward.getValue()[0]);
+                } else {
+                    // A transação não alterou nenhuma ref; essas targets voltam ao pull individual
+                    synced.remove(target);
+                }
+            }
+        }
+
+        if (!diverged.isEmpty()) {
+            NotificationHelper.notifyWarning(context.project, NotificationHelper.DEFAULT_TITLE,
+                    MessageBundle.message("warning.targets.diverged", String.join(", ", diverged)));
+        }
+        return new Outcome(remaining, synced);
+    }
+}
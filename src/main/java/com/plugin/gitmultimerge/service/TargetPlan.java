@@ -0,0 +1,14 @@
+package com.plugin.gitmultimerge.service;
+
+/**
+ * Classificação de uma branch target feita antes do processamento, a partir da
+ * relação de ancestralidade entre a target e a source.
+ */
+public enum TargetPlan {
+    /** A target já contém todos os commits da source; nada a fazer. */
+    UP_TO_DATE,
+    /** A target é ancestral da source; o merge é um fast-forward. */
+    FAST_FORWARD,
+    /** Target e source divergiram; é necessário um merge real. */
+    MERGE
+}
@@ -1,18 +1,14 @@
 package com.plugin.gitmultimerge.service;
 
-import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.vcs.changes.ChangeListManager;
-import com.intellij.openapi.vcs.changes.InvokeAfterUpdateMode;
-import com.plugin.gitmultimerge.util.MessageBundle;
-import com.plugin.gitmultimerge.util.VcsRefreshUtil;
 
+/**
+ * Pede a atualização do ChangeListManager e do painel de commit. Durante uma
+ * execução, o pedido é agrupado pelo {@link VcsRefreshCoordinator} em vez de
+ * bloquear a thread de background à espera de uma atualização completa.
+ */
 public class UpdateChangeListManagerStep {
     public static void update(Project project) {
-        ChangeListManager.getInstance(project).invokeAfterUpdate(
-                () -> VcsRefreshUtil.refreshVcsAndCommitPanel(project),
-                InvokeAfterUpdateMode.SYNCHRONOUS_CANCELLABLE,
-                MessageBundle.message("progress.updating.conflicts"),
-                ModalityState.defaultModalityState());
+        VcsRefreshCoordinator.getInstance(project).requestRefresh();
     }
-}
\ No newline at end of file
+}
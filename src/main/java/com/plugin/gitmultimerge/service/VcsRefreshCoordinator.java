@@ -0,0 +1,170 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vcs.FilePath;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.vcsUtil.VcsUtil;
+import com.plugin.gitmultimerge.util.VcsRefreshUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Agrupa os pedidos de atualização do estado VCS feitos durante uma execução.
+ * Enquanto houver execuções em curso, os pedidos são apenas registrados; uma
+ * única atualização assíncrona é feita quando a última execução termina.
+ * Se todas as execuções registraram os arquivos que alteraram no working tree,
+ * apenas esses arquivos são marcados como modificados, em vez do projeto inteiro.
+ */
+@Service(Service.Level.PROJECT)
+public final class VcsRefreshCoordinator {
+    private static final Logger LOG = Logger.getInstance(VcsRefreshCoordinator.class);
+    /** Acima deste número de caminhos, o escopo passa a ser por diretório. */
+    private static final int MAX_DIRTY_PATHS = 1000;
+
+    private final Project project;
+    private int activeRuns;
+    private boolean pending;
+    private int requested;
+    private int performed;
+    /** Arquivos alterados por raiz, registrados pelas execuções em curso. */
+    private final Map<VirtualFile, Set<String>> changedPaths = new HashMap<>();
+    /** Se alguma execução não conseguiu calcular os arquivos alterados. */
+    private boolean scopeUnknown;
+
+    public VcsRefreshCoordinator(Project project) {
+        this.project = project;
+    }
+
+    public static VcsRefreshCoordinator getInstance(@NotNull Project project) {
+        return project.getService(VcsRefreshCoordinator.class);
+    }
+
+    /** Marca o início de uma execução; os pedidos passam a ser adiados. */
+    public synchronized void beginRun() {
+        if (activeRuns++ == 0) {
+            requested = 0;
+            performed = 0;
+            changedPaths.clear();
+            scopeUnknown = false;
+        }
+    }
+
+    /**
+     * Registra os arquivos que a execução alterou no working tree de um repositório.
+     *
+     * @param root  Raiz do repositório.
+     * @param paths Caminhos relativos à raiz, ou null se não puderam ser calculados;
+     *              nesse caso a atualização final abrange o projeto inteiro.
+     */
+    public synchronized void recordChangedPaths(@NotNull VirtualFile root, @Nullable Collection<String> paths) {
+        if (paths == null) {
+            scopeUnknown = true;
+        } else {
+            changedPaths.computeIfAbsent(root, key -> new LinkedHashSet<>()).addAll(paths);
+        }
+    }
+
+    /**
+     * Marca o fim de uma execução. Ao terminar a última, faz a atualização
+     * pendente e registra quantas atualizações foram evitadas.
+     */
+    public void endRun() {
+        Map<VirtualFile, Set<String>> scope;
+        synchronized (this) {
+            if (activeRuns == 0 || --activeRuns > 0) {
+                return;
+            }
+            boolean refresh = pending;
+            pending = false;
+            if (refresh) {
+                performed++;
+            }
+            if (requested > 0) {
+                LOG.info("VCS refresh coalesced: " + requested + " requests, " + performed + " refreshes, "
+                        + Math.max(0, requested - performed) + " saved");
+            }
+            if (!refresh) {
+                return;
+            }
+            scope = scopeUnknown || changedPaths.isEmpty() ? null : new HashMap<>(changedPaths);
+            changedPaths.clear();
+        }
+        if (scope == null) {
+            VcsRefreshUtil.refreshVcsAndCommitPanel(project);
+        } else {
+            refresh(scope);
+        }
+    }
+
+    /** Pede uma atualização; durante uma execução, fica pendente até o fim. */
+    public void requestRefresh() {
+        synchronized (this) {
+            if (activeRuns > 0) {
+                requested++;
+                pending = true;
+                return;
+            }
+        }
+        VcsRefreshUtil.refreshVcsAndCommitPanel(project);
+    }
+
+    /**
+     * Atualiza já o estado dos arquivos informados, sem esperar o fim da
+     * execução (ex.: antes de exibir a janela de resolução de conflitos).
+     */
+    public void refreshFiles(@NotNull Collection<VirtualFile> files) {
+        synchronized (this) {
+            performed++;
+        }
+        List<FilePath> filePaths = new ArrayList<>();
+        for (VirtualFile file : files) {
+            filePaths.add(VcsUtil.getFilePath(file));
+        }
+        VcsRefreshUtil.markDirty(project, filePaths, List.of());
+    }
+
+    /**
+     * Marca como modificados apenas os caminhos registrados. Listas grandes são
+     * reduzidas aos diretórios que as contêm e, se ainda forem grandes, aos
+     * diretórios de topo.
+     */
+    private void refresh(Map<VirtualFile, Set<String>> scope) {
+        List<FilePath> files = new ArrayList<>();
+        List<FilePath> directories = new ArrayList<>();
+        for (Map.Entry<VirtualFile, Set<String>> entry : scope.entrySet()) {
+            String rootPath = entry.getKey().getPath();
+            Set<String> paths = entry.getValue();
+            if (paths.size() <= MAX_DIRTY_PATHS) {
+                for (String path : paths) {
+                    files.add(VcsUtil.getFilePath(rootPath + "/" + path, false));
+                }
+                continue;
+            }
+            Set<String> parents = ChangedPaths.directoriesOf(paths);
+            if (parents.size() > MAX_DIRTY_PATHS) {
+                parents = ChangedPaths.topLevelOf(parents);
+            }
+            for (String parent : parents) {
+                directories.add(VcsUtil.getFilePath(rootPath + "/" + parent, true));
+            }
+            // Arquivos na raiz não pertencem a nenhum dos diretórios
+            for (String path : paths) {
+                if (path.indexOf('/') < 0) {
+                    files.add(VcsUtil.getFilePath(rootPath + "/" + path, false));
+                }
+            }
+        }
+        LOG.debug("Marking " + files.size() + " files and " + directories.size() + " directories dirty");
+        VcsRefreshUtil.markDirty(project, files, directories);
+    }
+}
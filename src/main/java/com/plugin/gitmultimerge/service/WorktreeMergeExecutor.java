@@ -0,0 +1,304 @@
+package com.plugin.gitmultimerge.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.plugin.gitmultimerge.exception.MultiMergeOperationException;
+import com.plugin.gitmultimerge.service.interfaces.GitRepositoryOperations;
+import com.plugin.gitmultimerge.service.interfaces.MergeStep;
+import com.plugin.gitmultimerge.util.MessageBundle;
+import com.plugin.gitmultimerge.util.NotificationHelper;
+import git4idea.commands.GitCommandResult;
+import git4idea.repo.GitRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Processa as branches target em paralelo, cada uma num git worktree temporário
+ * criado fora do projeto. O working tree principal, e portanto a branch em
+ * checkout pelo utilizador, não é alterado durante a execução.
+ * No modo esparso, o checkout de cada worktree é proporcional à alteração da
+ * source, e não ao tamanho do repositório.
+ */
+public class WorktreeMergeExecutor {
+    private static final Logger LOG = Logger.getInstance(WorktreeMergeExecutor.class);
+    private static final long AWAIT_STEP_MS = 100;
+    /** Entradas da configuração compartilhada que o sparse-checkout em worktrees pode alterar. */
+    private static final String SHARED_FORMAT_KEYS =
+            "^(core\\.repositoryformatversion|core\\.worktree|extensions\\..*)$";
+    private static final String FORMAT_VERSION_KEY = "core.repositoryformatversion";
+    private static final String WORKTREE_CONFIG_KEY = "extensions.worktreeconfig";
+
+    private final Project project;
+    private final GitRepositoryOperations gitOps;
+    private final int maxParallelTargets;
+    private final boolean sparse;
+    /** Garante que apenas uma janela de resolução de conflitos é exibida de cada vez. */
+    private final ReentrantLock conflictLock = new ReentrantLock();
+
+    /**
+     * Construtor padrão.
+     *
+     * @param project            Projeto atual.
+     * @param gitOps             Operações Git sobre o repositório principal.
+     * @param maxParallelTargets Número máximo de targets processadas ao mesmo tempo.
+     * @param sparse             Se true, cada worktree é criado em sparse checkout,
+     *                           limitado aos diretórios alterados pela source.
+     */
+    public WorktreeMergeExecutor(Project project, GitRepositoryOperations gitOps, int maxParallelTargets,
+            boolean sparse) {
+        this.project = project;
+        this.gitOps = gitOps;
+        this.maxParallelTargets = maxParallelTargets;
+        this.sparse = sparse;
+    }
+
+    /**
+     * Executa o fluxo de merge para todas as targets e remove os worktrees no final.
+     */
+    MergeRunResult execute(
+            GitRepository repository,
+            String sourceBranch,
+            List<String> targetBranches,
+            RunPlan plan,
+            boolean squash,
+            boolean pushAfterMerge,
+            boolean deleteSourceBranch,
+            String commitMessage,
+            ProgressIndicator indicator) throws MultiMergeOperationException {
+        MergeRunResult result = new MergeRunResult();
+        if (targetBranches.isEmpty()) {
+            return result;
+        }
+
+        // Em worktrees, o sparse-checkout ativa extensions.worktreeConfig (e a versão 1
+        // do formato) na configuração compartilhada; os valores originais são restaurados
+        // no final. Com core.worktree definido o git o moveria para config.worktree, então
+        // esse caso usa checkout completo.
+        Map<String, String> sharedConfig = sparse ? gitOps.getLocalConfig(repository, SHARED_FORMAT_KEYS) : null;
+        boolean sparseRun = sharedConfig != null && !sharedConfig.containsKey("core.worktree");
+
+        File baseDir;
+        try {
+            baseDir = FileUtil.createTempDirectory("git-multi-merge", null, true);
+        } catch (IOException e) {
+            throw new MultiMergeOperationException(
+                    MessageBundle.message("error.worktree.create", sourceBranch, e.getMessage()));
+        }
+
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+                "GitMultiMerge.Worktrees", maxParallelTargets);
+        AtomicInteger completed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < targetBranches.size(); i++) {
+                String targetBranch = targetBranches.get(i);
+                File worktree = new File(baseDir, "target-" + i);
+                MergeContext context = new MergeContext(project, repository, sourceBranch, targetBranch,
+                        squash, pushAfterMerge, deleteSourceBranch, commitMessage, indicator);
+                context.deferPush = true;
+                context.refs = plan.refs;
+                context.targetSynced = plan.isSynchronized(targetBranch);
+                context.targetPlan = plan.planOf(targetBranch);
+                futures.add(executor.submit(() -> ProgressManager.getInstance().executeProcessUnderProgress(
+                        () -> {
+                            try {
+                                processTarget(context, worktree, sparseRun);
+                            } finally {
+                                result.add(context);
+                                indicator.setFraction((double) completed.incrementAndGet() / targetBranches.size());
+                            }
+                        },
+                        indicator)));
+            }
+            for (Future<?> future : futures) {
+                await(future, indicator);
+            }
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+            executor.shutdown();
+            awaitTermination(executor);
+            FileUtil.delete(baseDir);
+            if (sparseRun) {
+                restoreSharedConfig(repository, sharedConfig);
+            }
+        }
+        return result;
+    }
+
+    /** Cria o worktree da target, executa as etapas e remove o worktree. */
+    private void processTarget(MergeContext context, File worktree, boolean sparseRun) {
+        context.indicator.checkCanceled();
+        context.indicator.setText(MessageBundle.message("progress.processing", context.targetBranch));
+
+        GitCommandResult addResult = addWorktree(context, worktree, sparseRun);
+        if (!addResult.success()) {
+            context.errorMessage = MessageBundle.message("error.worktree.create", context.targetBranch,
+                    String.join("\n", addResult.getErrorOutput()));
+            markFailed(context);
+            NotificationHelper.notifyError(project, NotificationHelper.DEFAULT_TITLE, context.errorMessage);
+            return;
+        }
+
+        try {
+            GitRepositoryOperations worktreeOps = new GitRepositoryOperationsImpl(project, worktree);
+            MergeStep[] steps = new MergeStep[] {
+                    new SyncBranchStep(worktreeOps),
+                    new CheckUpToDateStep(worktreeOps),
+                    new PerformMergeStep(worktreeOps),
+                    new PushBranchStep(worktreeOps, false)
+            };
+            executeSteps(steps, context, worktreeOps);
+        } finally {
+            gitOps.removeWorktree(context.repository, worktree);
+        }
+    }
+
+    /**
+     * Cria o worktree da target. No modo esparso, apenas os diretórios alterados
+     * entre o merge-base e a source são escritos em disco; se o sparse checkout
+     * não estiver disponível, recorre ao checkout completo.
+     */
+    private GitCommandResult addWorktree(MergeContext context, File worktree, boolean sparseRun) {
+        if (sparseRun) {
+            Set<String> directories = gitOps.findChangedDirectories(context.repository, context.targetBranch,
+                    context.sourceBranch);
+            if (directories != null) {
+                GitCommandResult result = gitOps.addSparseWorktree(context.repository, worktree,
+                        context.targetBranch, directories);
+                if (result.success()) {
+                    return result;
+                }
+                LOG.info("Sparse worktree unavailable for " + context.targetBranch + ", using a full checkout: "
+                        + String.join("\n", result.getErrorOutput()));
+                gitOps.removeWorktree(context.repository, worktree);
+            }
+        }
+        return gitOps.addWorktree(context.repository, worktree, context.targetBranch);
+    }
+
+    /**
+     * Desfaz as alterações do sparse-checkout na configuração compartilhada, depois
+     * que todos os worktrees foram removidos: remove extensions.worktreeConfig se não
+     * estava definido e, sem outras extensões, volta à versão original do formato.
+     */
+    private void restoreSharedConfig(GitRepository repository, Map<String, String> original) {
+        Map<String, String> current = gitOps.getLocalConfig(repository, SHARED_FORMAT_KEYS);
+        if (current.containsKey(WORKTREE_CONFIG_KEY) && !original.containsKey(WORKTREE_CONFIG_KEY)) {
+            gitOps.setLocalConfig(repository, "extensions.worktreeConfig", null);
+            current.remove(WORKTREE_CONFIG_KEY);
+            LOG.info("Restored extensions.worktreeConfig after sparse worktrees in " + repository.getRoot());
+        }
+        String originalVersion = original.get(FORMAT_VERSION_KEY);
+        boolean hasExtensions = current.keySet().stream().anyMatch(key -> key.startsWith("extensions."));
+        if (!hasExtensions && !Objects.equals(originalVersion, current.get(FORMAT_VERSION_KEY))) {
+            gitOps.setLocalConfig(repository, FORMAT_VERSION_KEY, originalVersion);
+        }
+    }
+
+    /**
+     * Executa as etapas de uma target. Diferente do fluxo sequencial, uma falha
+     * afeta apenas a target corrente e não interrompe as demais.
+     */
+    private void executeSteps(MergeStep[] steps, MergeContext context, GitRepositoryOperations worktreeOps) {
+        for (MergeStep step : steps) {
+            StepResult stepResult = step.execute(context);
+            switch (stepResult) {
+                case SUCCESS -> {
+                    // Contínua para o próximo 'step'
+                }
+                case SKIPPED -> {
+                    return;
+                }
+                case CONFLICT -> {
+                    if (!resolveConflict(context, worktreeOps)) {
+                        step.failure(context);
+                        markFailed(context);
+                        NotificationHelper.notifyError(project,
+                                NotificationHelper.DEFAULT_TITLE,
+                                MessageBundle.message("error.merge.conflict", context.targetBranch,
+                                        String.join("\n", context.errorMessage)));
+                        return;
+                    }
+                    step.success(context);
+                }
+                case FAILURE -> {
+                    step.failure(context);
+                    markFailed(context);
+                    NotificationHelper.notifyError(project,
+                            NotificationHelper.DEFAULT_TITLE,
+                            MessageBundle.message("error.execute.step",
+                                    step.getClass().getSimpleName(), context.errorMessage));
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Resolve o conflito no worktree da target, uma target de cada vez. */
+    private boolean resolveConflict(MergeContext context, GitRepositoryOperations worktreeOps) {
+        conflictLock.lock();
+        try {
+            return new MergeConflictResolutionStep(worktreeOps).execute(context);
+        } finally {
+            conflictLock.unlock();
+        }
+    }
+
+    private static void markFailed(MergeContext context) {
+        context.allSuccessful = false;
+        if (!context.failedMerges.contains(context.targetBranch)) {
+            context.failedMerges.add(context.targetBranch);
+        }
+    }
+
+    /** Aguarda a conclusão de uma target, respeitando o cancelamento do indicador. */
+    private static void await(Future<?> future, ProgressIndicator indicator) {
+        while (true) {
+            indicator.checkCanceled();
+            try {
+                future.get(AWAIT_STEP_MS, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException ignored) {
+                // Continua a aguardar
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ProcessCanceledException pce) {
+                    throw pce;
+                }
+                LOG.warn("Unexpected failure while merging in worktree", e.getCause());
+                return;
+            }
+        }
+    }
+
+    /** Aguarda as targets em curso terminarem antes de apagar o diretório base. */
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
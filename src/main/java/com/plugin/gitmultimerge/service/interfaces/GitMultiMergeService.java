@@ -1,10 +1,14 @@
 package com.plugin.gitmultimerge.service.interfaces;
 
 import com.intellij.openapi.progress.ProgressIndicator;
+import com.plugin.gitmultimerge.service.BranchMetadata;
+import com.plugin.gitmultimerge.service.MergePrediction;
 import git4idea.repo.GitRepository;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -20,6 +24,34 @@ public interface GitMultiMergeService {
      */
     List<String> getBranchNames(GitRepository repository);
 
+    /**
+     * Informações das branches locais em relação à source: data do último commit
+     * e quantos commits da source faltam em cada uma. Os valores ficam em cache
+     * pelos hashes dos commits; deve ser chamado fora da EDT.
+     *
+     * @param repositories Repositórios Git; uma branch presente em vários usa os
+     *                     dados do primeiro.
+     * @param sourceBranch Nome da branch source.
+     * @return Mapa do nome da branch para as suas informações.
+     */
+    Map<String, BranchMetadata> getBranchMetadata(List<GitRepository> repositories, String sourceBranch);
+
+    /**
+     * Prevê, com merges de teste sem checkout executados em paralelo, se o merge da
+     * source em cada target será limpo, terá conflitos ou já foi feito. Os
+     * resultados ficam em cache pelos hashes da source e da target.
+     *
+     * @param repositories   Repositórios Git alvo.
+     * @param sourceBranch   Nome da branch source.
+     * @param targetBranches Branches target.
+     * @param maxParallel    Número máximo de merges de teste ao mesmo tempo.
+     * @param indicator      Indicador de progresso, consultado para cancelamento.
+     * @return Resultado por target; targets que não existem em nenhum repositório
+     *         ficam de fora.
+     */
+    Map<String, MergePrediction> predictMerges(List<GitRepository> repositories, String sourceBranch,
+            Collection<String> targetBranches, int maxParallel, ProgressIndicator indicator);
+
     /**
      * Executa o merge da branch source para múltiplas branches target.
      * Opera de forma assíncrona e notifica o progresso.
@@ -45,6 +77,33 @@ public interface GitMultiMergeService {
             String commitMessage,
             ProgressIndicator indicator);
 
+    /**
+     * Executa o merge da branch source para múltiplas branches target em vários
+     * repositórios, em paralelo. Cada repositório é processado de forma
+     * independente, usando apenas as branches que nele existem, e o resultado é
+     * notificado num único resumo agrupado por repositório.
+     *
+     * @param repositories       Repositórios Git alvo.
+     * @param sourceBranch       Nome da branch source.
+     * @param targetBranches     Lista de branches target.
+     * @param squash             Se true, faz squash dos commits.
+     * @param pushAfterMerge     Se true, faz push após cada merge.
+     * @param deleteSourceBranch Se true, remove a branch source após merges
+     *                           bem-sucedidos.
+     * @param commitMessage      Mensagem de commit para squash.
+     * @param indicator          Indicador de progresso.
+     * @return CompletableFuture indicando se todos os repositórios tiveram sucesso.
+     */
+    CompletableFuture<Boolean> performMerge(
+            List<GitRepository> repositories,
+            String sourceBranch,
+            List<String> targetBranches,
+            boolean squash,
+            boolean pushAfterMerge,
+            boolean deleteSourceBranch,
+            String commitMessage,
+            ProgressIndicator indicator);
+
     /**
      * Verifica se há alterações não enviadas no working directory.
      *
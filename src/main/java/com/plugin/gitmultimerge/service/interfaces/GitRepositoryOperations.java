@@ -1,12 +1,19 @@
 package com.plugin.gitmultimerge.service.interfaces;
 
 import com.intellij.openapi.vfs.VirtualFile;
-import git4idea.GitRemoteBranch;
+import com.plugin.gitmultimerge.service.BranchMetadata;
+import com.plugin.gitmultimerge.service.ConflictedFile;
+import com.plugin.gitmultimerge.service.MergePrediction;
+import com.plugin.gitmultimerge.service.RefSnapshot;
 import git4idea.commands.GitCommandResult;
 import git4idea.repo.GitRepository;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -46,6 +53,27 @@ public interface GitRepositoryOperations {
          */
         GitCommandResult push(@NotNull GitRepository repository, @NotNull String branchName, boolean setUpstream);
 
+        /**
+         * Envia várias refs para o remote numa única invocação
+         * (git push --porcelain [--atomic] origin refspec...).
+         *
+         * @param repository  Repositório Git alvo.
+         * @param refspecs    Refspecs a enviar; ":refs/heads/x" remove a branch remota.
+         * @param atomic      Se true, todas as refs são aceitas ou nenhuma é alterada.
+         * @return Resultado do comando Git, com o estado de cada ref na saída.
+         */
+        GitCommandResult pushRefs(@NotNull GitRepository repository, @NotNull List<String> refspecs, boolean atomic);
+
+        /**
+         * Faz cada branch local rastrear a branch de mesmo nome em origin
+         * (git branch --set-upstream-to), como o -u do push faria.
+         *
+         * @param repository Repositório Git alvo.
+         * @param branches   Branches locais já enviadas ao remote.
+         * @return Resultado dos comandos Git; falha se alguma branch não foi configurada.
+         */
+        GitCommandResult setUpstream(@NotNull GitRepository repository, @NotNull List<String> branches);
+
         /**
          * Realiza o pull da branch especificada.
          *
@@ -65,22 +93,13 @@ public interface GitRepositoryOperations {
         GitCommandResult deleteBranch(@NotNull GitRepository repository, @NotNull String branchName);
 
         /**
-         * Busca a branch remota correspondente a uma branch local.
+         * Delete a branch especificada em origin.
          *
-         * @param repository      Repositório Git alvo.
-         * @param localBranchName Nome da branch local.
-         * @return Branch remota correspondente, ou null se não encontrada.
-         */
-        GitRemoteBranch findRemoteBranch(@NotNull GitRepository repository, @NotNull String localBranchName);
-
-        /**
-         * Delete a branch remota especificada.
-         *
-         * @param repository   Repositório Git alvo.
-         * @param remoteBranch Branch remota a ser removida.
+         * @param repository Repositório Git alvo.
+         * @param branchName Nome da branch remota, sem o prefixo do remote.
          * @return Resultado do comando Git.
          */
-        GitCommandResult deleteRemoteBranch(@NotNull GitRepository repository, @NotNull GitRemoteBranch remoteBranch);
+        GitCommandResult deleteRemoteBranch(@NotNull GitRepository repository, @NotNull String branchName);
 
         /**
          * Verifica se há alterações pendentes entre a branch atual e a branch de
@@ -92,6 +111,19 @@ public interface GitRepositoryOperations {
          */
         boolean hasPendingChanges(@NotNull GitRepository repository, @NotNull String sourceBranch);
 
+        /**
+         * Verifica diretamente no git se o working tree ou o índice diferem do HEAD
+         * (git diff --quiet HEAD), parando na primeira diferença encontrada.
+         * Arquivos não versionados são ignorados; fsmonitor e untracked-cache são
+         * usados quando configurados no repositório.
+         *
+         * @param repository Repositório Git alvo.
+         * @return true se há alterações, false se está limpo, ou null se o git não
+         *         pôde responder (ex.: repositório sem commits).
+         */
+        @Nullable
+        Boolean hasWorkingTreeChanges(@NotNull GitRepository repository);
+
         /**
          * Executa git fetch --all para atualizar referências remotas.
          *
@@ -122,13 +154,45 @@ public interface GitRepositoryOperations {
 
         /**
          * Retorna o conjunto de arquivos em conflito (unmerged) no repositório.
-         * Utiliza 'git diff --name-only --diff-filter=U' para detecção robusta.
          *
          * @param repository Repositório Git alvo.
          * @return Conjunto de caminhos relativos dos arquivos em conflito.
          */
         Set<VirtualFile> getConflictedFiles(@NotNull GitRepository repository);
 
+        /**
+         * Lista numa única chamada de git ls-files -u os arquivos em conflito, com
+         * os blobs de base, ours e theirs de cada um.
+         *
+         * @param repository Repositório Git alvo.
+         * @return Arquivos em conflito, na ordem do index; vazia em caso de falha.
+         */
+        @NotNull
+        List<ConflictedFile> listConflicts(@NotNull GitRepository repository);
+
+        /**
+         * Lê o conteúdo de um blob, pelo processo git cat-file mantido aberto ou,
+         * se não estiver disponível, por um git cat-file blob.
+         *
+         * @param repository Repositório Git alvo.
+         * @param sha        Hash do blob.
+         * @return Conteúdo do blob, ou null se não puder ser lido.
+         */
+        byte @Nullable [] readBlob(@NotNull GitRepository repository, @NotNull String sha);
+
+        /**
+         * Resolve um conflito ficando com uma das versões, sem ler o conteúdo do
+         * arquivo: git checkout --ours/--theirs seguido de git add, ou git rm se a
+         * versão escolhida removeu o arquivo.
+         *
+         * @param repository Repositório Git alvo.
+         * @param conflict   Arquivo em conflito.
+         * @param ours       true para a versão da target, false para a da source.
+         * @return Resultado do último comando Git executado.
+         */
+        GitCommandResult resolveWithVersion(@NotNull GitRepository repository, @NotNull ConflictedFile conflict,
+                        boolean ours);
+
         /**
          * Adiciona os arquivos informados ao index (git add).
          * 
@@ -143,4 +207,251 @@ public interface GitRepositoryOperations {
          * @param repository Repositório Git alvo.
          */
         void abortMerge(@NotNull GitRepository repository);
-}
\ No newline at end of file
+
+        /**
+         * Retorna a raiz do diretório de trabalho onde os comandos são executados.
+         * Corresponde à raiz do repositório, exceto quando as operações estão
+         * vinculadas a um git worktree.
+         *
+         * @param repository Repositório Git alvo.
+         * @return Diretório de trabalho efetivo.
+         */
+        @NotNull
+        VirtualFile getWorkingRoot(@NotNull GitRepository repository);
+
+        /**
+         * Cria um git worktree para a branch informada (git worktree add).
+         *
+         * @param repository Repositório Git alvo.
+         * @param path       Diretório do novo worktree (não deve existir).
+         * @param branchName Nome da branch a ser feita checkout no worktree.
+         * @return Resultado do comando Git.
+         */
+        GitCommandResult addWorktree(@NotNull GitRepository repository, @NotNull File path,
+                        @NotNull String branchName);
+
+        /**
+         * Cria um git worktree em sparse checkout (modo cone) limitado aos
+         * diretórios informados; os arquivos na raiz do repositório são sempre
+         * incluídos. Requer Git 2.36 ou superior, em que a configuração do
+         * sparse checkout fica restrita ao worktree criado. Para isso o git ativa
+         * extensions.worktreeConfig na configuração compartilhada, que cabe ao
+         * chamador restaurar.
+         *
+         * @param repository  Repositório Git alvo.
+         * @param path        Diretório do novo worktree (não deve existir).
+         * @param branchName  Nome da branch a ser feita checkout no worktree.
+         * @param directories Diretórios do cone, relativos à raiz do repositório.
+         * @return Resultado do comando Git; em caso de falha, o worktree pode ter
+         *         sido criado parcialmente e deve ser removido.
+         */
+        GitCommandResult addSparseWorktree(@NotNull GitRepository repository, @NotNull File path,
+                        @NotNull String branchName, @NotNull Collection<String> directories);
+
+        /**
+         * Lista os diretórios que o merge da source na target pode alterar: os
+         * diretórios dos arquivos modificados entre o merge-base e a source
+         * (git diff --name-only target...source), sem os já cobertos por um
+         * diretório pai da lista.
+         *
+         * @param repository   Repositório Git alvo.
+         * @param targetBranch Nome da branch target.
+         * @param sourceBranch Nome da branch source.
+         * @return Diretórios relativos à raiz, ou null se o diff não puder ser calculado.
+         */
+        @Nullable
+        Set<String> findChangedDirectories(@NotNull GitRepository repository, @NotNull String targetBranch,
+                        @NotNull String sourceBranch);
+
+        /**
+         * Lista os arquivos que diferem entre dois commits (git diff --name-only
+         * from to), relativos à raiz do repositório.
+         *
+         * @param repository Repositório Git alvo.
+         * @param from       Commit inicial.
+         * @param to         Commit final.
+         * @return Caminhos alterados, ou null se o diff não puder ser calculado.
+         */
+        @Nullable
+        List<String> findChangedPaths(@NotNull GitRepository repository, @NotNull String from, @NotNull String to);
+
+        /**
+         * Remove o git worktree informado, descartando o diretório mesmo que o
+         * comando falhe.
+         *
+         * @param repository Repositório Git alvo.
+         * @param path       Diretório do worktree.
+         */
+        void removeWorktree(@NotNull GitRepository repository, @NotNull File path);
+
+        /**
+         * Lê as entradas da configuração local do repositório, compartilhada pelos
+         * worktrees, cujo nome corresponde à expressão (git config --local --get-regexp).
+         *
+         * @param repository Repositório Git alvo.
+         * @param keyPattern Expressão regular aplicada aos nomes das entradas.
+         * @return Valor por nome, com o nome em minúsculas como o git o exibe.
+         */
+        @NotNull
+        Map<String, String> getLocalConfig(@NotNull GitRepository repository, @NotNull String keyPattern);
+
+        /**
+         * Define uma entrada da configuração local do repositório, ou a remove se o
+         * valor for null.
+         *
+         * @param repository Repositório Git alvo.
+         * @param key        Nome da entrada.
+         * @param value      Novo valor, ou null para remover.
+         * @return Resultado do comando Git.
+         */
+        GitCommandResult setLocalConfig(@NotNull GitRepository repository, @NotNull String key,
+                        @Nullable String value);
+
+        /**
+         * Lista as branches locais que contêm o commit informado (git for-each-ref
+         * --contains).
+         *
+         * @param repository Repositório Git alvo.
+         * @param revision   Commit ou branch de referência.
+         * @return Nomes curtos das branches locais; vazio em caso de falha.
+         */
+        @NotNull
+        Set<String> findBranchesContaining(@NotNull GitRepository repository, @NotNull String revision);
+
+        /**
+         * Lista as branches locais cujo head é alcançável a partir do commit informado
+         * (git for-each-ref --merged).
+         *
+         * @param repository Repositório Git alvo.
+         * @param revision   Commit ou branch de referência.
+         * @return Nomes curtos das branches locais; vazio em caso de falha.
+         */
+        @NotNull
+        Set<String> findBranchesMergedInto(@NotNull GitRepository repository, @NotNull String revision);
+
+        /**
+         * Resolve uma revisão para o hash do commit, pelo git cat-file persistente do
+         * repositório ou, na falta dele, por git rev-parse --verify.
+         *
+         * @param repository Repositório Git alvo.
+         * @param revision   Nome da ref ou revisão.
+         * @return Hash do commit, ou null se a revisão não existir.
+         */
+        @Nullable
+        String resolveRevision(@NotNull GitRepository repository, @NotNull String revision);
+
+        /**
+         * Verifica se um commit é ancestral de outro, percorrendo o histórico pelo git
+         * cat-file persistente ou, se a busca não for conclusiva, por git merge-base
+         * --is-ancestor.
+         *
+         * @param repository Repositório Git alvo.
+         * @param ancestor   Possível ancestral.
+         * @param descendant Possível descendente.
+         * @return true se ancestor é ancestral de (ou igual a) descendant.
+         */
+        boolean isAncestor(@NotNull GitRepository repository, @NotNull String ancestor, @NotNull String descendant);
+
+        /**
+         * Move uma ref de forma segura (git update-ref), apenas se o valor atual
+         * ainda for o esperado.
+         *
+         * @param repository Repositório Git alvo.
+         * @param refName    Nome completo da ref (ex.: refs/heads/main).
+         * @param newValue   Novo hash.
+         * @param oldValue   Hash esperado antes da atualização.
+         * @return Resultado do comando Git.
+         */
+        GitCommandResult updateRef(@NotNull GitRepository repository, @NotNull String refName,
+                        @NotNull String newValue, @NotNull String oldValue);
+
+        /**
+         * Atualiza a branch remota de rastreamento de uma branch (git fetch origin).
+         *
+         * @param repository Repositório Git alvo.
+         * @param branchName Nome da branch.
+         * @return Resultado do comando Git.
+         */
+        GitCommandResult fetchBranch(@NotNull GitRepository repository, @NotNull String branchName);
+
+        /**
+         * Executa o merge da branch source na branch target sem checkout: a árvore
+         * resultante é calculada com git merge-tree --write-tree, o commit é criado
+         * com git commit-tree e a target é movida com git update-ref.
+         * Em caso de conflito nenhuma ref é alterada e a saída contém as linhas
+         * CONFLICT do merge-tree.
+         *
+         * @param repository    Repositório Git alvo.
+         * @param sourceBranch  Nome da branch source.
+         * @param targetBranch  Nome da branch target.
+         * @param squash        Se true, cria um único commit sem a source como pai.
+         * @param commitMessage Mensagem de commit (opcional).
+         * @return Resultado do último comando Git executado.
+         */
+        GitCommandResult mergeWithoutCheckout(@NotNull GitRepository repository, @NotNull String sourceBranch,
+                        @NotNull String targetBranch, boolean squash, String commitMessage);
+
+        /**
+         * Lista as branches existentes no remote origin (git ls-remote --heads).
+         *
+         * @param repository Repositório Git alvo.
+         * @return Mapa do nome da branch para o hash remoto, ou null se o remote
+         *         não puder ser consultado.
+         */
+        @Nullable
+        Map<String, String> listRemoteHeads(@NotNull GitRepository repository);
+
+        /**
+         * Captura numa única chamada de git for-each-ref as branches locais, as branches
+         * remotas de origin e os upstreams.
+         *
+         * @param repository Repositório Git alvo.
+         * @return Fotografia das refs; vazia em caso de falha.
+         */
+        @NotNull
+        RefSnapshot captureRefs(@NotNull GitRepository repository);
+
+        /**
+         * Lê numa única chamada de git for-each-ref o hash, a data do último commit e,
+         * a partir do git 2.41, quantos commits da source faltam em cada branch local.
+         *
+         * @param repository Repositório Git alvo.
+         * @param sourceSha  Commit de comparação, ou null para não calcular os commits
+         *                   em falta.
+         * @return Informações de cada branch local; vazia em caso de falha.
+         */
+        @NotNull
+        List<BranchMetadata> readBranchMetadata(@NotNull GitRepository repository, @Nullable String sourceSha);
+
+        /**
+         * Faz um merge de teste da source na target apenas na base de objetos
+         * (git merge-tree --write-tree), sem alterar refs nem o working tree.
+         *
+         * @param repository Repositório Git alvo.
+         * @param sourceSha  Commit da source.
+         * @param targetSha  Commit da target.
+         * @return Resultado previsto, com os arquivos em conflito se houver.
+         */
+        @NotNull
+        MergePrediction predictMerge(@NotNull GitRepository repository, @NotNull String sourceSha,
+                        @NotNull String targetSha);
+
+        /**
+         * Atualiza as branches remotas de rastreamento de várias branches num único
+         * git fetch (ou em blocos, se os refspecs não couberem numa linha de comando).
+         *
+         * @param repository  Repositório Git alvo.
+         * @param branchNames Nomes das branches.
+         * @return Resultado do comando Git.
+         */
+        GitCommandResult fetchBranches(@NotNull GitRepository repository, @NotNull Collection<String> branchNames);
+
+        /**
+         * Move várias refs numa única transação (git update-ref --stdin).
+         *
+         * @param repository Repositório Git alvo.
+         * @param updates    Mapa do nome completo da ref para {novo hash, hash esperado}.
+         * @return Resultado do comando Git.
+         */
+        GitCommandResult updateRefs(@NotNull GitRepository repository, @NotNull Map<String, String[]> updates);
+}
@@ -0,0 +1,338 @@
+package com.plugin.gitmultimerge.ui;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Índice imutável dos nomes de branches, montado uma vez quando o diálogo abre
+ * e compartilhado pelos painéis de source e target. Como não muda depois de
+ * criado, pode ser consultado de qualquer thread.
+ * <p>
+ * A busca combina dois critérios, ordenados por relevância:
+ * <ul>
+ * <li>trecho contínuo do nome, localizado por trigramas (ex.: "hotfix");</li>
+ * <li>letras em ordem que começam segmentos do nome, separados por '/', '-',
+ * '_', '.' ou por maiúsculas (ex.: "rhp" ou "hotpay" para
+ * "release/2024.11-hotfix-payments").</li>
+ * </ul>
+ * Só os nomes candidatos das listas do índice são avaliados, então o custo de
+ * uma consulta acompanha o número de resultados, e não o total de branches. Os
+ * candidatos da busca por segmentos são os nomes com um segmento começando pela
+ * primeira letra do texto e que contêm todas as demais; textos curtos, sem
+ * trigramas, usam as mesmas listas de caracteres.
+ */
+final class BranchIndex {
+    /** Intervalo, em candidatos, entre verificações de cancelamento. */
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+    private static final int[] NO_MATCHES = new int[0];
+
+    private static final int SCORE_EXACT = 1000;
+    private static final int SCORE_PREFIX = 900;
+    private static final int SCORE_SEGMENT_SUBSTRING = 800;
+    private static final int SCORE_SUBSTRING = 600;
+    private static final int SCORE_FUZZY = 300;
+
+    private final List<String> names;
+    private final Set<String> nameSet;
+    private final String[] lowerCaseNames;
+    /** Nomes (posições em names) que contêm cada trigrama, em ordem crescente. */
+    private final Map<Long, int[]> trigrams;
+    /** Nomes que têm um segmento começando por cada caractere, em ordem crescente. */
+    private final Map<Character, int[]> segmentStarts;
+    /** Nomes que contêm cada caractere, em ordem crescente. */
+    private final Map<Character, int[]> characters;
+
+    BranchIndex(@NotNull Collection<String> names) {
+        this.names = List.copyOf(names);
+        this.nameSet = Set.copyOf(this.names);
+        this.lowerCaseNames = new String[this.names.size()];
+        Map<Long, IntList> trigramLists = new HashMap<>();
+        Map<Character, IntList> segmentLists = new HashMap<>();
+        Map<Character, IntList> characterLists = new HashMap<>();
+        for (int i = 0; i < lowerCaseNames.length; i++) {
+            String name = this.names.get(i);
+            String lowerCaseName = toLowerCase(name);
+            lowerCaseNames[i] = lowerCaseName;
+            for (int j = 0; j + 3 <= lowerCaseName.length(); j++) {
+                trigramLists.computeIfAbsent(trigram(lowerCaseName, j), key -> new IntList()).add(i);
+            }
+            for (int j = 0; j < name.length(); j++) {
+                char c = lowerCaseName.charAt(j);
+                characterLists.computeIfAbsent(c, key -> new IntList()).add(i);
+                if (isSegmentStart(name, j)) {
+                    segmentLists.computeIfAbsent(c, key -> new IntList()).add(i);
+                }
+            }
+        }
+        this.trigrams = new HashMap<>(trigramLists.size());
+        trigramLists.forEach((key, list) -> trigrams.put(key, list.toArray()));
+        this.segmentStarts = new HashMap<>(segmentLists.size());
+        segmentLists.forEach((key, list) -> segmentStarts.put(key, list.toArray()));
+        this.characters = new HashMap<>(characterLists.size());
+        characterLists.forEach((key, list) -> characters.put(key, list.toArray()));
+    }
+
+    /** Todos os nomes, na ordem recebida. */
+    @NotNull
+    List<String> names() {
+        return names;
+    }
+
+    /** Se a branch existe no índice, em tempo constante. */
+    boolean contains(@Nullable String name) {
+        return name != null && nameSet.contains(name);
+    }
+
+    /**
+     * Busca as branches que correspondem ao texto, sem diferenciar maiúsculas.
+     *
+     * @param query     Texto buscado.
+     * @param cancelled Consultado durante a busca; quando true, a busca é abandonada.
+     * @return Branches encontradas, das mais relevantes para as menos, ou null se cancelada.
+     */
+    @Nullable
+    List<String> search(@NotNull String query, @NotNull BooleanSupplier cancelled) {
+        String lowerCaseQuery = toLowerCase(query);
+        if (lowerCaseQuery.isEmpty()) {
+            return names;
+        }
+        int[] substringCandidates = substringCandidates(lowerCaseQuery);
+        int[] fuzzyCandidates = fuzzyCandidates(lowerCaseQuery);
+
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (int k = 0; k < substringCandidates.length; k++) {
+            if (k % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                return null;
+            }
+            int i = substringCandidates[k];
+            int score = substringScore(i, lowerCaseQuery);
+            if (score > 0) {
+                scores.put(i, score);
+            }
+        }
+        for (int k = 0; k < fuzzyCandidates.length; k++) {
+            if (k % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                return null;
+            }
+            int i = fuzzyCandidates[k];
+            if (!scores.containsKey(i)) {
+                int score = fuzzyScore(names.get(i), lowerCaseNames[i], lowerCaseQuery);
+                if (score > 0) {
+                    scores.put(i, score);
+                }
+            }
+        }
+
+        List<Integer> matches = new ArrayList<>(scores.keySet());
+        matches.sort(Comparator.<Integer>comparingInt(scores::get).reversed()
+                .thenComparingInt(i -> names.get(i).length())
+                .thenComparing(names::get));
+        List<String> result = new ArrayList<>(matches.size());
+        for (int i : matches) {
+            result.add(names.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Nomes que podem conter o texto: a interseção das listas dos seus trigramas.
+     * Textos com menos de três caracteres não têm trigramas e usam as listas dos
+     * seus caracteres.
+     */
+    private int[] substringCandidates(String query) {
+        List<int[]> lists = new ArrayList<>();
+        if (query.length() < 3) {
+            for (int j = 0; j < query.length(); j++) {
+                lists.add(characters.get(query.charAt(j)));
+            }
+        } else {
+            for (int j = 0; j + 3 <= query.length(); j++) {
+                lists.add(trigrams.get(trigram(query, j)));
+            }
+        }
+        return intersectAll(lists);
+    }
+
+    /**
+     * Nomes que podem corresponder por segmentos: a primeira letra precisa
+     * iniciar um segmento, e as demais precisam aparecer no nome.
+     */
+    private int[] fuzzyCandidates(String query) {
+        List<int[]> lists = new ArrayList<>();
+        lists.add(segmentStarts.get(query.charAt(0)));
+        for (int j = 1; j < query.length(); j++) {
+            if (query.indexOf(query.charAt(j)) == j) {
+                lists.add(characters.get(query.charAt(j)));
+            }
+        }
+        return intersectAll(lists);
+    }
+
+    /** Interseção das listas; uma lista ausente (null) não tem nenhum nome. */
+    private static int[] intersectAll(List<int[]> lists) {
+        if (lists.contains(null)) {
+            return NO_MATCHES;
+        }
+        // Começa pela lista mais curta para que cada interseção seja a menor possível
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        int[] result = lists.get(0);
+        for (int k = 1; k < lists.size() && result.length > 0; k++) {
+            result = intersect(result, lists.get(k));
+        }
+        return result;
+    }
+
+    private int substringScore(int i, String query) {
+        String lowerCaseName = lowerCaseNames[i];
+        int position = lowerCaseName.indexOf(query);
+        if (position < 0) {
+            return 0;
+        }
+        if (lowerCaseName.length() == query.length()) {
+            return SCORE_EXACT;
+        }
+        if (position == 0) {
+            return SCORE_PREFIX;
+        }
+        String name = names.get(i);
+        // Trechos mais próximos do fim (o nome da branch, não a pasta) valem um pouco mais
+        int bonus = Math.min(99, position);
+        return isSegmentStart(name, position) ? SCORE_SEGMENT_SUBSTRING + bonus : SCORE_SUBSTRING + bonus;
+    }
+
+    /**
+     * Compara as letras do texto, em ordem, com o início dos segmentos do nome.
+     * A primeira letra precisa iniciar um segmento; as seguintes continuam o
+     * segmento atual ou começam o próximo segmento possível.
+     *
+     * @return Pontuação, ou 0 se o texto não corresponder.
+     */
+    private static int fuzzyScore(String name, String lowerCaseName, String query) {
+        int position = -1;
+        int segmentHits = 0;
+        int consecutive = 0;
+        for (int q = 0; q < query.length(); q++) {
+            char c = query.charAt(q);
+            if (q > 0 && position + 1 < lowerCaseName.length() && lowerCaseName.charAt(position + 1) == c) {
+                position++;
+                consecutive++;
+                continue;
+            }
+            int next = nextSegmentStart(name, lowerCaseName, c, position + 1);
+            if (next < 0) {
+                return 0;
+            }
+            position = next;
+            segmentHits++;
+        }
+        return SCORE_FUZZY + 10 * consecutive - 5 * segmentHits;
+    }
+
+    private static int nextSegmentStart(String name, String lowerCaseName, char c, int from) {
+        for (int j = from; j < lowerCaseName.length(); j++) {
+            if (lowerCaseName.charAt(j) == c && isSegmentStart(name, j)) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    /** Se a posição inicia um segmento: após um separador, numa maiúscula após minúscula ou num número. */
+    private static boolean isSegmentStart(String name, int j) {
+        if (j == 0) {
+            return true;
+        }
+        char previous = name.charAt(j - 1);
+        char current = name.charAt(j);
+        if (previous == '/' || previous == '-' || previous == '_' || previous == '.') {
+            return true;
+        }
+        if (Character.isUpperCase(current) && Character.isLowerCase(previous)) {
+            return true;
+        }
+        return Character.isDigit(current) && !Character.isDigit(previous);
+    }
+
+    /**
+     * Minúsculas caractere a caractere. Diferente de String.toLowerCase, mantém o
+     * comprimento (ex.: 'İ'), então as posições valem também no nome original.
+     */
+    private static String toLowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * Interseção de duas listas ordenadas. Se a segunda for muito maior, cada
+     * elemento da primeira é buscado nela por busca binária, para que o custo
+     * acompanhe a lista menor.
+     */
+    private static int[] intersect(int[] a, int[] b) {
+        if (b.length / 16 > a.length) {
+            int[] result = new int[a.length];
+            int size = 0;
+            int from = 0;
+            for (int value : a) {
+                int found = Arrays.binarySearch(b, from, b.length, value);
+                if (found >= 0) {
+                    result[size++] = value;
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            return Arrays.copyOf(result, size);
+        }
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                result[size++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /** Lista crescente de posições, sem repetições consecutivas. */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.plugin.gitmultimerge.ui;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Modelo somente leitura do ComboBox de branches source. Os itens são uma
+ * lista imutável (todas as branches do índice ou o resultado de uma busca),
+ * trocada de uma vez com um único evento, em vez de um evento por elemento.
+ */
+class BranchListModel extends AbstractListModel<String> implements ComboBoxModel<String> {
+    private List<String> items;
+    @Nullable
+    private Object selectedItem;
+
+    BranchListModel(@NotNull List<String> items) {
+        this.items = items;
+    }
+
+    /**
+     * Troca os itens exibidos, mantendo o item selecionado.
+     *
+     * @param newItems Lista imutável de branches.
+     */
+    void setItems(@NotNull List<String> newItems) {
+        if (newItems == items) {
+            return;
+        }
+        int previousSize = items.size();
+        items = newItems;
+        int changedSize = Math.max(previousSize, newItems.size());
+        if (changedSize > 0) {
+            fireContentsChanged(this, 0, changedSize - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return items.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public void setSelectedItem(@Nullable Object item) {
+        if (!Objects.equals(selectedItem, item)) {
+            selectedItem = item;
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    @Override
+    public @Nullable Object getSelectedItem() {
+        return selectedItem;
+    }
+}
@@ -0,0 +1,60 @@
+package com.plugin.gitmultimerge.ui;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Executa as buscas de branches fora da EDT. Cada nova consulta adia a execução
+ * por alguns milissegundos e invalida a anterior, mesmo que já esteja em curso;
+ * apenas o resultado da última consulta é publicado na EDT.
+ */
+final class BranchSearchScheduler {
+    private static final int DEBOUNCE_MS = 150;
+
+    private final Alarm alarm;
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param parent Disposable que encerra o agendamento (ex.: o do diálogo).
+     */
+    BranchSearchScheduler(@NotNull Disposable parent) {
+        this.alarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, parent);
+    }
+
+    /** Descarta a busca agendada ou em curso, sem publicar o seu resultado. */
+    void cancel() {
+        generation.incrementAndGet();
+        alarm.cancelAllRequests();
+    }
+
+    /**
+     * Agenda uma busca, descartando a anterior.
+     *
+     * @param search  Executada numa thread de background; recebe o indicador de
+     *                cancelamento e devolve null se foi interrompida.
+     * @param publish Executado na EDT com o resultado, se a consulta ainda for a última.
+     */
+    <T> void schedule(@NotNull Function<BooleanSupplier, T> search, @NotNull Consumer<T> publish) {
+        long id = generation.incrementAndGet();
+        BooleanSupplier cancelled = () -> generation.get() != id || alarm.isDisposed();
+        alarm.cancelAllRequests();
+        alarm.addRequest(() -> {
+            T result = search.apply(cancelled);
+            if (result == null || cancelled.getAsBoolean()) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (!cancelled.getAsBoolean()) {
+                    publish.accept(result);
+                }
+            });
+        }, DEBOUNCE_MS);
+    }
+}
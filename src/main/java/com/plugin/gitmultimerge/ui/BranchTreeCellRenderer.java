@@ -1,24 +1,128 @@
 package com.plugin.gitmultimerge.ui;
 
 import com.intellij.icons.AllIcons;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.text.DateFormatUtil;
+import com.plugin.gitmultimerge.service.BranchMetadata;
+import com.plugin.gitmultimerge.service.MergePrediction;
+import com.plugin.gitmultimerge.util.MessageBundle;
+
 import javax.swing.*;
 import javax.swing.tree.DefaultTreeCellRenderer;
 import java.awt.*;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 
 /**
  * Renderer customizado para exibir ícones de pasta e branch na árvore de
- * branches.
+ * branches, com a contagem de branches ao lado de cada pasta e, ao lado de cada
+ * branch, quantos commits da source lhe faltam e a data do último commit.
+ * Branches com previsão de merge exibem o resultado previsto no ícone e no
+ * texto, e os arquivos em conflito no tooltip.
  */
 public class BranchTreeCellRenderer extends DefaultTreeCellRenderer {
+    /** Arquivos em conflito listados por nome no tooltip. */
+    private static final int TOOLTIP_MAX_FILES = 20;
+
+    private final Function<String, BranchMetadata> metadataLookup;
+    private final BooleanSupplier metadataLoaded;
+    private final Function<String, MergePrediction> predictionLookup;
+
+    /**
+     * @param metadataLookup   Informações de uma branch, ou null se não existirem.
+     * @param metadataLoaded   Se as informações da source atual já foram carregadas;
+     *                         enquanto não, as branches exibem um marcador.
+     * @param predictionLookup Previsão de merge de uma branch, ou null se não foi feita.
+     */
+    public BranchTreeCellRenderer(Function<String, BranchMetadata> metadataLookup, BooleanSupplier metadataLoaded,
+            Function<String, MergePrediction> predictionLookup) {
+        this.metadataLookup = metadataLookup;
+        this.metadataLoaded = metadataLoaded;
+        this.predictionLookup = predictionLookup;
+    }
+
     @Override
     public Component getTreeCellRendererComponent(JTree tree, Object value, boolean sel, boolean expanded,
             boolean leaf, int row, boolean hasFocus) {
         Component c = super.getTreeCellRendererComponent(tree, value, sel, expanded, leaf, row, hasFocus);
+        setToolTipText(null);
         if (leaf) {
             setIcon(AllIcons.Vcs.Branch);
+            if (value instanceof BranchTreeModel.Node node && node.isBranch()) {
+                String text = node.toString();
+                MergePrediction prediction = predictionLookup.apply(node.getBranchName());
+                if (prediction != null) {
+                    setIcon(iconOf(prediction.status()));
+                    text += "  ·  " + describe(prediction);
+                    setToolTipText(tooltipOf(prediction));
+                }
+                String details = describe(node.getBranchName());
+                if (details != null) {
+                    text += "  ·  " + details;
+                }
+                setText(text);
+            }
         } else {
             setIcon(AllIcons.Nodes.Folder);
+            // Pastas exibem quantas branches (visíveis com a busca atual) contêm
+            if (tree.getModel() instanceof BranchTreeModel model && value instanceof BranchTreeModel.Node node) {
+                setText(node + " (" + model.countOf(node) + ")");
+            }
         }
         return c;
     }
-}
\ No newline at end of file
+
+    private static Icon iconOf(MergePrediction.Status status) {
+        return switch (status) {
+            case ALREADY_MERGED -> AllIcons.Actions.Checked;
+            case CLEAN -> AllIcons.RunConfigurations.TestPassed;
+            case UNKNOWN -> AllIcons.General.Information;
+            case CONFLICTS -> AllIcons.General.Warning;
+        };
+    }
+
+    private static String describe(MergePrediction prediction) {
+        return switch (prediction.status()) {
+            case ALREADY_MERGED -> MessageBundle.message("prediction.already.merged");
+            case CLEAN -> MessageBundle.message("prediction.clean");
+            case UNKNOWN -> MessageBundle.message("prediction.unknown");
+            case CONFLICTS -> MessageBundle.message("prediction.conflicts", prediction.conflictedFiles().size());
+        };
+    }
+
+    /** Arquivos em conflito, um por linha, ou null se não houver. */
+    private static String tooltipOf(MergePrediction prediction) {
+        List<String> files = prediction.conflictedFiles();
+        if (files.isEmpty()) {
+            return null;
+        }
+        StringBuilder tooltip = new StringBuilder("<html>");
+        for (String file : files.subList(0, Math.min(files.size(), TOOLTIP_MAX_FILES))) {
+            tooltip.append(StringUtil.escapeXmlEntities(file)).append("<br>");
+        }
+        if (files.size() > TOOLTIP_MAX_FILES) {
+            tooltip.append(MessageBundle.message("summary.more", files.size() - TOOLTIP_MAX_FILES));
+        }
+        return tooltip.append("</html>").toString();
+    }
+
+    /** Texto exibido ao lado da branch, ou null se não houver informações. */
+    private String describe(String branchName) {
+        if (!metadataLoaded.getAsBoolean()) {
+            return MessageBundle.message("branch.metadata.loading");
+        }
+        BranchMetadata metadata = metadataLookup.apply(branchName);
+        if (metadata == null) {
+            return null;
+        }
+        String date = DateFormatUtil.formatPrettyDate(metadata.commitTime() * 1000);
+        if (metadata.behind() < 0) {
+            return date;
+        }
+        String behind = metadata.behind() == 0
+                ? MessageBundle.message("branch.metadata.up.to.date")
+                : MessageBundle.message("branch.metadata.behind", metadata.behind());
+        return behind + "  ·  " + date;
+    }
+}
@@ -0,0 +1,397 @@
+package com.plugin.gitmultimerge.ui;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Modelo da árvore de branches target, sobre a lista de branches ordenada uma
+ * única vez. Como nomes com o mesmo prefixo ficam contíguos na ordenação, cada
+ * pasta (ex.: "release/") corresponde a um intervalo dessa lista: a contagem de
+ * branches de uma pasta é obtida sem percorrê-la, e os nós filhos só são
+ * criados quando a pasta é exibida. Os filhos aparecem com as pastas primeiro e
+ * depois as branches, cada grupo em ordem alfabética.
+ * <p>
+ * A busca é aplicada como uma vista filtrada; ao trocar a vista, apenas as
+ * pastas já exibidas pela árvore são comparadas, e só os nós que entram ou
+ * saem são notificados, sem recarregar o modelo inteiro.
+ */
+class BranchTreeModel implements TreeModel {
+    private final String[] sortedNames;
+    private final Node root;
+    private final EventListenerList listeners = new EventListenerList();
+    private View view;
+
+    /**
+     * Nó da árvore: uma pasta ou uma branch, associado ao intervalo [from, to)
+     * da lista ordenada. As branches guardam o nome completo, que não precisa ser
+     * remontado a partir do caminho na árvore.
+     */
+    static final class Node {
+        private final String name;
+        @Nullable
+        private final String branchName;
+        @Nullable
+        private final Node parent;
+        private final int from;
+        private final int to;
+        /** Filhos da pasta, criados na primeira consulta. */
+        @Nullable
+        private List<Node> children;
+
+        private Node(String name, @Nullable String branchName, @Nullable Node parent, int from, int to) {
+            this.name = name;
+            this.branchName = branchName;
+            this.parent = parent;
+            this.from = from;
+            this.to = to;
+        }
+
+        /** Nome completo da branch, ou null se o nó for uma pasta. */
+        @Nullable
+        String getBranchName() {
+            return branchName;
+        }
+
+        boolean isBranch() {
+            return branchName != null;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Resultado de um filtro: as posições visíveis na lista ordenada e, para as
+     * pastas já consultadas pela árvore, os seus filhos visíveis.
+     */
+    static final class View {
+        private final BitSet visible;
+        /** visibleBefore[i] é o número de branches visíveis nas posições [0, i). */
+        private final int[] visibleBefore;
+        private final Map<Node, List<Node>> children = new HashMap<>();
+
+        private View(BitSet visible, int size) {
+            this.visible = visible;
+            this.visibleBefore = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                visibleBefore[i + 1] = visibleBefore[i] + (visible.get(i) ? 1 : 0);
+            }
+        }
+
+        private int count(Node node) {
+            return visibleBefore[node.to] - visibleBefore[node.from];
+        }
+    }
+
+    /**
+     * Ordena a lista de branches; nenhum nó além da raiz é criado.
+     *
+     * @param branchNames Nomes completos das branches.
+     */
+    BranchTreeModel(@NotNull Collection<String> branchNames) {
+        this.sortedNames = branchNames.toArray(new String[0]);
+        Arrays.sort(sortedNames);
+        this.root = new Node("branches", null, null, 0, sortedNames.length);
+        this.view = computeView(branch -> true);
+    }
+
+    /**
+     * Calcula a vista filtrada sem alterar o modelo. A lista ordenada não muda
+     * depois de construída, então pode ser chamado fora da EDT.
+     *
+     * @param filter Critério das branches exibidas.
+     * @return Vista a ser aplicada com {@link #setView}.
+     */
+    @NotNull
+    View computeView(@NotNull Predicate<String> filter) {
+        BitSet visible = new BitSet(sortedNames.length);
+        for (int i = 0; i < sortedNames.length; i++) {
+            if (filter.test(sortedNames[i])) {
+                visible.set(i);
+            }
+        }
+        return new View(visible, sortedNames.length);
+    }
+
+    /**
+     * Aplica uma vista calculada por {@link #computeView}; deve ser chamado na EDT.
+     */
+    void setView(@NotNull View next) {
+        View previous = view;
+        // Durante os eventos, cada pasta passa pelo estado intermediário (só as
+        // remoções) antes do final, como esperado pelos listeners da JTree
+        next.children.putAll(previous.children);
+        view = next;
+        Set<Node> updated = new HashSet<>();
+        fireChanges(root, previous, updated);
+        next.children.keySet().retainAll(updated);
+    }
+
+    /** Número de branches visíveis dentro do nó. */
+    int countOf(@NotNull Node node) {
+        return view.count(node);
+    }
+
+    /**
+     * Branches visíveis dentro do nó, lidas do intervalo da lista ordenada, sem
+     * criar os nós das subpastas.
+     */
+    @NotNull
+    List<String> branchesUnder(@NotNull Node node) {
+        List<String> branches = new ArrayList<>(view.count(node));
+        for (int i = view.visible.nextSetBit(node.from); i >= 0 && i < node.to; i = view.visible.nextSetBit(i + 1)) {
+            branches.add(sortedNames[i]);
+        }
+        return branches;
+    }
+
+    /**
+     * Pastas a expandir para mostrar o resultado de uma busca, em largura a
+     * partir da raiz, até o limite de linhas exibidas. As pastas além do limite
+     * ficam recolhidas, com a contagem de resultados ao lado do nome.
+     *
+     * @param maxRows Número máximo de linhas que as pastas expandidas podem ocupar.
+     */
+    @NotNull
+    List<TreePath> foldersToExpand(int maxRows) {
+        List<TreePath> paths = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        int rows = visibleChildren(root).size();
+        enqueueFolders(root, pending);
+        while (!pending.isEmpty()) {
+            Node folder = pending.removeFirst();
+            int childRows = visibleChildren(folder).size();
+            if (rows + childRows > maxRows) {
+                break;
+            }
+            rows += childRows;
+            paths.add(pathTo(folder));
+            enqueueFolders(folder, pending);
+        }
+        return paths;
+    }
+
+    private void enqueueFolders(Node folder, Deque<Node> pending) {
+        for (Node child : visibleChildren(folder)) {
+            if (!child.isBranch()) {
+                pending.addLast(child);
+            }
+        }
+    }
+
+    /** Filhos visíveis da pasta na vista atual. */
+    private List<Node> visibleChildren(Node folder) {
+        return view.children.computeIfAbsent(folder, key -> filterVisible(view, childrenOf(key)));
+    }
+
+    private static List<Node> filterVisible(View view, List<Node> children) {
+        List<Node> visible = new ArrayList<>();
+        for (Node child : children) {
+            if (view.count(child) > 0) {
+                visible.add(child);
+            }
+        }
+        return visible;
+    }
+
+    /** Cria, na primeira consulta, os filhos da pasta a partir do seu intervalo. */
+    private List<Node> childrenOf(Node folder) {
+        if (folder.children != null) {
+            return folder.children;
+        }
+        String prefix = prefixOf(folder);
+        List<Node> folders = new ArrayList<>();
+        List<Node> branches = new ArrayList<>();
+        int i = folder.from;
+        while (i < folder.to) {
+            String relative = sortedNames[i].substring(prefix.length());
+            int slash = relative.indexOf('/');
+            if (slash < 0) {
+                branches.add(new Node(relative, sortedNames[i], folder, i, i + 1));
+                i++;
+                continue;
+            }
+            // Os nomes da subpasta são contíguos na lista ordenada
+            String subfolderPrefix = prefix + relative.substring(0, slash + 1);
+            int end = i + 1;
+            while (end < folder.to && sortedNames[end].startsWith(subfolderPrefix)) {
+                end++;
+            }
+            folders.add(new Node(relative.substring(0, slash), null, folder, i, end));
+            i = end;
+        }
+        Comparator<Node> byName = Comparator.comparing(node -> node.name);
+        folders.sort(byName);
+        branches.sort(byName);
+        List<Node> children = new ArrayList<>(folders.size() + branches.size());
+        children.addAll(folders);
+        children.addAll(branches);
+        folder.children = children;
+        return children;
+    }
+
+    /** Prefixo comum aos nomes da pasta (ex.: "release/2024/"); vazio para a raiz. */
+    private static String prefixOf(Node folder) {
+        StringBuilder prefix = new StringBuilder();
+        for (Node current = folder; current.parent != null; current = current.parent) {
+            prefix.insert(0, current.name + "/");
+        }
+        return prefix.toString();
+    }
+
+    /**
+     * Compara os filhos visíveis de uma pasta já exibida antes e depois da troca
+     * de vista e emite eventos apenas para as diferenças. As listas são
+     * subsequências da mesma ordem, então as posições são calculadas numa única
+     * passagem. Pastas nunca consultadas pela árvore não geram eventos.
+     */
+    private void fireChanges(Node folder, View previous, Set<Node> updated) {
+        List<Node> before = previous.children.get(folder);
+        if (before == null) {
+            return;
+        }
+        List<Node> after = filterVisible(view, childrenOf(folder));
+        updated.add(folder);
+        Set<Node> afterSet = new HashSet<>(after);
+        Set<Node> beforeSet = new HashSet<>(before);
+
+        List<Integer> removedIndices = new ArrayList<>();
+        List<Node> removed = new ArrayList<>();
+        List<Node> kept = new ArrayList<>();
+        for (int i = 0; i < before.size(); i++) {
+            Node child = before.get(i);
+            if (afterSet.contains(child)) {
+                kept.add(child);
+            } else {
+                removedIndices.add(i);
+                removed.add(child);
+            }
+        }
+        List<Integer> insertedIndices = new ArrayList<>();
+        List<Node> inserted = new ArrayList<>();
+        List<Integer> changedIndices = new ArrayList<>();
+        List<Node> changed = new ArrayList<>();
+        for (int i = 0; i < after.size(); i++) {
+            Node child = after.get(i);
+            if (!beforeSet.contains(child)) {
+                insertedIndices.add(i);
+                inserted.add(child);
+            } else if (!child.isBranch() && previous.count(child) != view.count(child)) {
+                // A contagem exibida ao lado da pasta mudou
+                changedIndices.add(i);
+                changed.add(child);
+            }
+        }
+
+        TreePath path = pathTo(folder);
+        if (!removed.isEmpty()) {
+            view.children.put(folder, kept);
+            fire(new TreeModelEvent(this, path, toArray(removedIndices), removed.toArray()), EventType.REMOVED);
+        }
+        view.children.put(folder, after);
+        if (!inserted.isEmpty()) {
+            fire(new TreeModelEvent(this, path, toArray(insertedIndices), inserted.toArray()), EventType.INSERTED);
+        }
+        if (!changed.isEmpty()) {
+            fire(new TreeModelEvent(this, path, toArray(changedIndices), changed.toArray()), EventType.CHANGED);
+        }
+        // Pastas que continuam visíveis podem ter mudado por dentro
+        for (Node child : kept) {
+            if (!child.isBranch()) {
+                fireChanges(child, previous, updated);
+            }
+        }
+    }
+
+    private enum EventType { REMOVED, INSERTED, CHANGED }
+
+    private void fire(TreeModelEvent event, EventType type) {
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            switch (type) {
+                case REMOVED -> listener.treeNodesRemoved(event);
+                case INSERTED -> listener.treeNodesInserted(event);
+                case CHANGED -> listener.treeNodesChanged(event);
+            }
+        }
+    }
+
+    private static int[] toArray(List<Integer> indices) {
+        int[] result = new int[indices.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = indices.get(i);
+        }
+        return result;
+    }
+
+    /** Caminho da raiz até o nó informado. */
+    TreePath pathTo(@NotNull Node node) {
+        List<Node> nodes = new ArrayList<>();
+        for (Node current = node; current != null; current = current.parent) {
+            nodes.add(0, current);
+        }
+        return new TreePath(nodes.toArray());
+    }
+
+    @Override
+    public Object getRoot() {
+        return root;
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        return visibleChildren((Node) parent).get(index);
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        Node node = (Node) parent;
+        return node.isBranch() ? 0 : visibleChildren(node).size();
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        return ((Node) node).isBranch();
+    }
+
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        // A árvore não é editável
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        Node node = (Node) parent;
+        return node.isBranch() ? -1 : visibleChildren(node).indexOf(child);
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener listener) {
+        listeners.add(TreeModelListener.class, listener);
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener listener) {
+        listeners.remove(TreeModelListener.class, listener);
+    }
+}
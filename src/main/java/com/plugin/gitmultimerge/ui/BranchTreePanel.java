@@ -1,42 +1,92 @@
 package com.plugin.gitmultimerge.ui;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.ui.DocumentAdapter;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.components.JBTextField;
 import com.intellij.ui.treeStructure.Tree;
+import com.intellij.util.ui.tree.TreeUtil;
+import com.plugin.gitmultimerge.service.BranchMetadata;
+import com.plugin.gitmultimerge.service.MergePrediction;
 import com.plugin.gitmultimerge.util.MessageBundle;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
 import javax.swing.event.TreeSelectionListener;
-import javax.swing.tree.*;
+import javax.swing.tree.DefaultTreeSelectionModel;
+import javax.swing.tree.TreePath;
+import javax.swing.tree.TreeSelectionModel;
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Painel customizado para exibir e gerir a árvore de branches target com
  * campo de busca.
  */
 public class BranchTreePanel extends JPanel {
+    /** Linhas que a expansão automática do resultado de uma busca pode ocupar. */
+    private static final int MAX_EXPANDED_ROWS = 500;
+
     private final JBTextField searchField;
     private final JTree branchTree;
-    private final DefaultMutableTreeNode treeRoot;
-    private final List<String> allBranchNames;
+    private final BranchTreeModel treeModel;
+    private final BranchIndex branchIndex;
+    private final BranchSearchScheduler searchScheduler;
     private String sourceBranch;
+    /** Informações das branches em relação à source atual; null enquanto carregam. */
+    private Map<String, BranchMetadata> branchMetadata;
+    /** Previsões de merge feitas para a source atual. */
+    private Map<String, MergePrediction> predictions = new HashMap<>();
+    /** Branches de cada pasta selecionada, fixadas no momento da seleção. */
+    private final Map<TreePath, List<String>> selectedFolders = new HashMap<>();
 
-    public BranchTreePanel(List<String> allBranchNames, String sourceBranch) {
+    public BranchTreePanel(BranchIndex branchIndex, String sourceBranch, Disposable parentDisposable) {
         super(new BorderLayout(0, 5));
-        this.allBranchNames = allBranchNames;
+        this.branchIndex = branchIndex;
         this.sourceBranch = sourceBranch;
-        this.treeRoot = new DefaultMutableTreeNode("branches");
-        this.branchTree = new Tree(treeRoot);
+        this.searchScheduler = new BranchSearchScheduler(parentDisposable);
+        // A árvore é montada uma única vez; a busca apenas filtra a vista
+        this.treeModel = new BranchTreeModel(branchIndex.names());
+        this.branchTree = new Tree(treeModel);
         branchTree.setSelectionModel(new DefaultTreeSelectionModel());
         branchTree.getSelectionModel().setSelectionMode(TreeSelectionModel.DISCONTIGUOUS_TREE_SELECTION);
         branchTree.setRootVisible(false);
-        branchTree.setCellRenderer(new BranchTreeCellRenderer());
+        branchTree.setCellRenderer(new BranchTreeCellRenderer(
+                branch -> branchMetadata == null ? null : branchMetadata.get(branch),
+                () -> branchMetadata != null,
+                branch -> predictions.get(branch)));
+        ToolTipManager.sharedInstance().registerComponent(branchTree);
+        branchTree.addTreeSelectionListener(e -> {
+            for (TreePath path : e.getPaths()) {
+                BranchTreeModel.Node node = (BranchTreeModel.Node) path.getLastPathComponent();
+                if (!e.isAddedPath(path)) {
+                    selectedFolders.remove(path);
+                } else if (!node.isBranch()) {
+                    selectedFolders.put(path, treeModel.branchesUnder(node));
+                }
+            }
+        });
+        // Expandir uma pasta é para escolher dentro dela, não para selecioná-la inteira
+        branchTree.addTreeExpansionListener(new TreeExpansionListener() {
+            @Override
+            public void treeExpanded(TreeExpansionEvent event) {
+                branchTree.removeSelectionPath(event.getPath());
+            }
+
+            @Override
+            public void treeCollapsed(TreeExpansionEvent event) {
+                // Recolher não altera a seleção
+            }
+        });
 
         JPanel searchPanel = new JPanel(new BorderLayout());
         searchField = new JBTextField();
@@ -45,7 +95,8 @@ public class BranchTreePanel extends JPanel {
         add(searchPanel, BorderLayout.NORTH);
         add(new JBScrollPane(branchTree), BorderLayout.CENTER);
 
-        updateTree();
+        String excluded = sourceBranch;
+        applyView(treeModel.computeView(branch -> !branch.equals(excluded)), false);
         searchField.getDocument().addDocumentListener(new DocumentAdapter() {
             @Override
             protected void textChanged(@NotNull DocumentEvent e) {
@@ -56,135 +107,100 @@ public class BranchTreePanel extends JPanel {
 
     public void setSourceBranch(String sourceBranch) {
         this.sourceBranch = sourceBranch;
+        predictions = new HashMap<>();
+        setBranchMetadata(null);
         updateTree();
     }
 
+    /**
+     * Exibe as informações das branches em relação à source atual.
+     *
+     * @param metadata Informações por branch, ou null para exibir o marcador de
+     *                 carregamento.
+     */
+    public void setBranchMetadata(Map<String, BranchMetadata> metadata) {
+        this.branchMetadata = metadata;
+        // O texto das linhas muda de largura; o layout da árvore precisa ser recalculado
+        TreeUtil.invalidateCacheAndRepaint(branchTree);
+    }
+
+    /**
+     * Branches selecionadas. Selecionar uma pasta seleciona as branches visíveis
+     * dentro dela no momento da seleção, sem precisar expandi-la; mudar a busca
+     * ou expandir a pasta desfaz a seleção da pasta.
+     */
     public List<String> getSelectedBranches() {
         TreePath[] paths = branchTree.getSelectionPaths();
-        List<String> selected = new ArrayList<>();
+        Set<String> selected = new LinkedHashSet<>();
         if (paths != null) {
-            List<TreePath> leafPaths = new ArrayList<>();
             for (TreePath path : paths) {
-                DefaultMutableTreeNode node = (DefaultMutableTreeNode) path.getLastPathComponent();
-                if (node.isLeaf()) {
-                    leafPaths.add(path);
+                BranchTreeModel.Node node = (BranchTreeModel.Node) path.getLastPathComponent();
+                if (node.isBranch()) {
+                    selected.add(node.getBranchName());
+                } else {
+                    List<String> branches = selectedFolders.get(path);
+                    selected.addAll(branches != null ? branches : treeModel.branchesUnder(node));
                 }
             }
-            if (leafPaths.size() > 5) {
-                leafPaths = leafPaths.subList(0, 5);
-            }
-            branchTree.setSelectionPaths(leafPaths.toArray(new TreePath[0]));
-            selected = getSelectedTargetBranches(paths);
-
         }
-        return selected;
+        return new ArrayList<>(selected);
     }
 
-    private List<String> getSelectedTargetBranches(@NotNull TreePath[] paths) {
-        List<String> selected = new java.util.ArrayList<>();
-        for (TreePath path : paths) {
-            DefaultMutableTreeNode node = (DefaultMutableTreeNode) path.getLastPathComponent();
-            if (node.isLeaf()) {
-                // Monta o nome completo da branch
-                StringBuilder branchName = new StringBuilder();
-                Object[] nodes = path.getPath();
-                for (int i = 1; i < nodes.length; i++) { // ignora root
-                    if (!branchName.isEmpty())
-                        branchName.append("/");
-                    branchName.append(nodes[i].toString());
-                }
-                selected.add(branchName.toString());
-            }
-        }
-        return selected;
+    /**
+     * Exibe as previsões de merge, somando-as às já exibidas para a source atual.
+     *
+     * @param newPredictions Previsão por branch.
+     */
+    public void addPredictions(Map<String, MergePrediction> newPredictions) {
+        predictions.putAll(newPredictions);
+        TreeUtil.invalidateCacheAndRepaint(branchTree);
+    }
+
+    /** Remove as previsões exibidas, que não valem mais para os repositórios marcados. */
+    public void clearPredictions() {
+        predictions = new HashMap<>();
+        TreeUtil.invalidateCacheAndRepaint(branchTree);
     }
 
     public void addTreeSelectionListener(TreeSelectionListener listener) {
         branchTree.addTreeSelectionListener(listener);
     }
 
+    /**
+     * Agenda a filtragem da árvore. A busca e o cálculo da vista são feitos em
+     * background; só a vista final é aplicada na EDT.
+     */
     private void updateTree() {
         String searchText = searchField.getText();
-        treeRoot.removeAllChildren();
-        for (String branch : allBranchNames) {
-            if (branch.equals(sourceBranch)) continue;
-            if (searchText == null || searchText.isEmpty()
-                    || branch.toLowerCase().contains(searchText.toLowerCase())) {
-                addBranchToTree(treeRoot, branch);
-            }
-        }
-        ((DefaultTreeModel) branchTree.getModel()).reload();
-        for (int i = 0; i < branchTree.getRowCount(); i++) {
-            branchTree.collapseRow(i);
-        }
-        if (searchText != null && !searchText.isEmpty())
-            expandAllWithLeaves(branchTree, new TreePath(treeRoot));
-    }
-
-    private void addBranchToTree(DefaultMutableTreeNode root, String branch) {
-        String[] parts = branch.split("/");
-        DefaultMutableTreeNode node = root;
-        for (String part : parts) {
-            DefaultMutableTreeNode child = null;
-            for (int j = 0; j < node.getChildCount(); j++) {
-                DefaultMutableTreeNode n = (DefaultMutableTreeNode) node.getChildAt(j);
-                if (n.getUserObject().equals(part)) {
-                    child = n;
-                    break;
+        String query = searchText == null ? "" : searchText;
+        String excluded = sourceBranch;
+        searchScheduler.schedule(cancelled -> {
+            Set<String> matches = null;
+            if (!query.isEmpty()) {
+                List<String> found = branchIndex.search(query, cancelled);
+                if (found == null) {
+                    return null;
                 }
+                matches = new HashSet<>(found);
             }
-            if (child == null) {
-                child = new DefaultMutableTreeNode(part);
-                node.add(child);
-                reordenaNos(node);
-            }
-            node = child;
-        }
+            Set<String> visible = matches;
+            return treeModel.computeView(branch -> !branch.equals(excluded)
+                    && (visible == null || visible.contains(branch)));
+        }, view -> applyView(view, !query.isEmpty()));
     }
 
-    private void reordenaNos(DefaultMutableTreeNode pai) {
-        int count = pai.getChildCount();
-        if (count <= 1)
-            return;
-        List<DefaultMutableTreeNode> pastas = new ArrayList<>();
-        List<DefaultMutableTreeNode> folhas = new ArrayList<>();
-        for (int i = 0; i < count; i++) {
-            DefaultMutableTreeNode filho = (DefaultMutableTreeNode) pai.getChildAt(i);
-            if (filho.getChildCount() > 0) {
-                pastas.add(filho);
-            } else {
-                folhas.add(filho);
-            }
-        }
-        Comparator<DefaultMutableTreeNode> comparador = Comparator.comparing(n -> n.getUserObject().toString());
-        pastas.sort(comparador);
-        folhas.sort(comparador);
-        pai.removeAllChildren();
-        for (DefaultMutableTreeNode pasta : pastas) {
-            pai.add(pasta);
-        }
-        for (DefaultMutableTreeNode folha : folhas) {
-            pai.add(folha);
+    private void applyView(BranchTreeModel.View view, boolean searching) {
+        // A pasta selecionada passaria a conter outras branches com o novo filtro
+        branchTree.removeSelectionPaths(selectedFolders.keySet().toArray(new TreePath[0]));
+        selectedFolders.clear();
+        treeModel.setView(view);
+        for (int i = branchTree.getRowCount() - 1; i >= 0; i--) {
+            branchTree.collapseRow(i);
         }
-    }
-
-    private void expandAllWithLeaves(JTree tree, TreePath parent) {
-        DefaultMutableTreeNode node = (DefaultMutableTreeNode) parent.getLastPathComponent();
-        boolean hasLeaf = false;
-        for (int i = 0; i < node.getChildCount(); i++) {
-            DefaultMutableTreeNode child = (DefaultMutableTreeNode) node.getChildAt(i);
-            TreePath path = parent.pathByAddingChild(child);
-            if (child.isLeaf()) {
-                hasLeaf = true;
-            } else {
-                expandAllWithLeaves(tree, path);
-                if (child.getChildCount() > 0) {
-                    hasLeaf = true;
-                }
+        if (searching) {
+            for (TreePath path : treeModel.foldersToExpand(MAX_EXPANDED_ROWS)) {
+                branchTree.expandPath(path);
             }
         }
-        if (hasLeaf && parent.getPathCount() > 1) {
-            tree.expandPath(parent);
-        }
     }
-}
\ No newline at end of file
+}
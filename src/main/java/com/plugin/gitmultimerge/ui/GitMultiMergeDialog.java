@@ -1,15 +1,25 @@
 package com.plugin.gitmultimerge.ui;
 
+import com.intellij.dvcs.DvcsUtil;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
 import com.intellij.openapi.ui.DialogWrapper;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.JBIntSpinner;
+import com.intellij.ui.SimpleListCellRenderer;
 import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBLoadingPanel;
 import com.intellij.ui.components.JBTextField;
 import com.intellij.util.ui.JBUI;
+import com.plugin.gitmultimerge.service.GitMultiMergeSettings;
+import com.plugin.gitmultimerge.service.MergeExecutionMode;
 import com.plugin.gitmultimerge.service.interfaces.GitMultiMergeService;
 
 import com.plugin.gitmultimerge.util.MessageBundle;
@@ -20,41 +30,87 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Diálogo para selecionar branches e configurar opções para o multi-merge.
  * Usa GitMultiMergeService para implementar operações Git.
+ * Em projetos com vários repositórios, permite escolher em quais executar;
+ * as branches listadas são a união das branches de todos eles.
+ * O diálogo abre imediatamente; as branches são carregadas em background e os
+ * painéis de source e target são montados quando o carregamento termina.
  */
 public class GitMultiMergeDialog extends DialogWrapper {
+    private static final Logger LOG = Logger.getInstance(GitMultiMergeDialog.class);
+
     private final Project project;
-    private final GitRepository repository;
+    private final List<GitRepository> repositories;
     private final GitMultiMergeService gitService;
+    private final Map<GitRepository, JBCheckBox> repositoryCheckBoxes = new LinkedHashMap<>();
 
     private JBCheckBox squashCheckBox;
     private JBCheckBox deleteSourceCheckBox;
     private JBCheckBox pushAfterMergeCheckBox;
+    private JBCheckBox atomicPushCheckBox;
+    private JBCheckBox reuseResolutionsCheckBox;
     private JBTextField mergeCommitMessageField;
-    private final List<String> allBranchNames;
+    private ComboBox<MergeExecutionMode> executionModeComboBox;
+    private JBIntSpinner parallelTargetsSpinner;
+    private JBLoadingPanel branchesPanel;
+    /** Índice das branches; null até o carregamento terminar. */
+    private BranchIndex branchIndex;
     private BranchTreePanel branchTreePanel;
     private SourceBranchPanel sourceBranchPanel;
+    /** Resultado da última verificação de alterações não enviadas; null enquanto em curso. */
+    private Boolean uncommittedChanges;
+    /** Previsão de conflitos em curso; cancelada por uma nova previsão ou ao fechar o diálogo. */
+    private ProgressIndicator predictionIndicator;
+    private final Action predictAction = new DialogWrapperAction(MessageBundle.message("predict.conflicts.button")) {
+        @Override
+        protected void doAction(ActionEvent e) {
+            predictConflictsAsync();
+        }
+    };
 
     public GitMultiMergeDialog(@NotNull Project project, @NotNull GitRepository repository) {
+        this(project, List.of(repository));
+    }
+
+    public GitMultiMergeDialog(@NotNull Project project, @NotNull List<GitRepository> repositories) {
         super(project);
         this.project = project;
-        this.repository = repository;
+        this.repositories = repositories;
         // Obtém o serviço Git Multi Merge do registro de serviços do projeto
         this.gitService = project.getService(GitMultiMergeService.class);
-        // Usa o serviço para obter os nomes das branches
-        this.allBranchNames = gitService.getBranchNames(repository);
 
         setTitle(MessageBundle.message("dialog.title"));
 
         // Botão OK inicialmente desativado (até verificarmos se não há alterações)
         setOKActionEnabled(false);
 
+        predictAction.setEnabled(false);
+        Disposer.register(getDisposable(), () -> {
+            if (predictionIndicator != null) {
+                predictionIndicator.cancel();
+            }
+        });
+
         init();
+        loadBranchesAsync();
+    }
+
+    @Override
+    protected Action @NotNull [] createLeftSideActions() {
+        return new Action[]{predictAction};
     }
 
     @Nullable
@@ -67,14 +123,17 @@ public class GitMultiMergeDialog extends DialogWrapper {
         c.gridy = 0;
         c.weightx = 1.0;
         c.fill = GridBagConstraints.HORIZONTAL;
-        panel.add(createSourcePanel(), c);
-
-        c.gridy = 1;
+        if (repositories.size() > 1) {
+            panel.add(createRepositoriesPanel(), c);
+            c.gridy++;
+        }
         c.weighty = 1.0;
         c.fill = GridBagConstraints.BOTH;
-        panel.add(createTargetPanel(), c);
+        branchesPanel = new JBLoadingPanel(new BorderLayout(0, 5), getDisposable());
+        branchesPanel.setLoadingText(MessageBundle.message("branches.loading"));
+        panel.add(branchesPanel, c);
 
-        c.gridy = 2;
+        c.gridy++;
         c.weighty = 0;
         c.fill = GridBagConstraints.HORIZONTAL;
         panel.add(createOptionsPanel(), c);
@@ -83,12 +142,90 @@ public class GitMultiMergeDialog extends DialogWrapper {
         return panel;
     }
 
+    /**
+     * Cria o painel de seleção dos repositórios onde o merge será executado.
+     */
+    private JPanel createRepositoriesPanel() {
+        JPanel checkBoxesPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        for (GitRepository repository : repositories) {
+            JBCheckBox checkBox = new JBCheckBox(DvcsUtil.getShortRepositoryName(repository), true);
+            checkBox.addActionListener(e -> {
+                resetPredictions();
+                checkSourceBranchUncommittedChangesAsync();
+            });
+            repositoryCheckBoxes.put(repository, checkBox);
+            checkBoxesPanel.add(checkBox);
+        }
+        JPanel repositoriesPanel = new JPanel(new BorderLayout(0, 2));
+        repositoriesPanel.add(new JBLabel(MessageBundle.message("repositories.label")), BorderLayout.NORTH);
+        repositoriesPanel.add(checkBoxesPanel, BorderLayout.CENTER);
+        return repositoriesPanel;
+    }
+
+    /**
+     * Repositórios marcados no diálogo; com um único repositório, ele próprio.
+     */
+    private List<GitRepository> getSelectedRepositories() {
+        if (repositoryCheckBoxes.isEmpty()) {
+            return repositories;
+        }
+        List<GitRepository> selected = new ArrayList<>();
+        repositoryCheckBoxes.forEach((repository, checkBox) -> {
+            if (checkBox.isSelected()) {
+                selected.add(repository);
+            }
+        });
+        return selected;
+    }
+
+    /**
+     * Carrega as branches de todos os repositórios em background. Até terminar,
+     * o diálogo mostra o estado de carregamento no lugar dos painéis de branches.
+     */
+    private void loadBranchesAsync() {
+        branchesPanel.startLoading();
+        long start = System.nanoTime();
+        CompletableFuture.supplyAsync(() -> {
+            // Usa o serviço para obter os nomes das branches de todos os repositórios
+            Set<String> branchNames = new LinkedHashSet<>();
+            for (GitRepository repository : repositories) {
+                branchNames.addAll(gitService.getBranchNames(repository));
+            }
+            return new BranchIndex(branchNames);
+        }).whenCompleteAsync((index, error) -> {
+            if (isDisposed()) {
+                return;
+            }
+            BranchIndex loaded = index;
+            if (error != null) {
+                LOG.warn("Unable to load branches", error);
+                loaded = new BranchIndex(List.of());
+            }
+            LOG.info("Loaded " + loaded.names().size() + " branches from " + repositories.size()
+                    + " repositories in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+            showBranches(loaded);
+        }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Monta os painéis de source e target com as branches carregadas.
+     */
+    private void showBranches(BranchIndex index) {
+        this.branchIndex = index;
+        branchesPanel.add(createSourcePanel(), BorderLayout.NORTH);
+        branchesPanel.add(createTargetPanel(), BorderLayout.CENTER);
+        branchesPanel.stopLoading();
+        branchesPanel.revalidate();
+        updateSourceWarning();
+    }
+
     /**
      * Cria o painel de seleção da branch source.
      */
     private JPanel createSourcePanel() {
-        String currentBranch = repository.getCurrentBranchName();
-        this.sourceBranchPanel = new SourceBranchPanel(allBranchNames, currentBranch, this::updateTargetTree);
+        String currentBranch = repositories.get(0).getCurrentBranchName();
+        this.sourceBranchPanel = new SourceBranchPanel(branchIndex, currentBranch, this::updateTargetTree,
+                getDisposable());
         return sourceBranchPanel;
     }
 
@@ -99,13 +236,9 @@ public class GitMultiMergeDialog extends DialogWrapper {
         JPanel targetMainPanel = new JPanel(new BorderLayout(0, 5));
         targetMainPanel.add(new JBLabel(MessageBundle.message("target.branches.label")), BorderLayout.NORTH);
         String selectedBranch = sourceBranchPanel.getSelectedBranch();
-        branchTreePanel = new BranchTreePanel(allBranchNames, selectedBranch);
-        branchTreePanel.addTreeSelectionListener(e -> {
-            List<String> selected = branchTreePanel.getSelectedBranches();
-            boolean hasSelectedLeaf = selected != null && !selected.isEmpty();
-            boolean warningExists = sourceBranchPanel.hasWarning();
-            setOKActionEnabled(hasSelectedLeaf && !warningExists);
-        });
+        branchTreePanel = new BranchTreePanel(branchIndex, selectedBranch, getDisposable());
+        branchTreePanel.addTreeSelectionListener(e -> updateOKAction());
+        loadBranchMetadataAsync(selectedBranch);
         targetMainPanel.add(branchTreePanel, BorderLayout.CENTER);
         return targetMainPanel;
     }
@@ -134,45 +267,136 @@ public class GitMultiMergeDialog extends DialogWrapper {
         optConstraints.gridy = 2;
         optionsPanel.add(pushAfterMergeCheckBox, optConstraints);
 
+        atomicPushCheckBox = new JBCheckBox(MessageBundle.message("options.atomic.push"));
+        atomicPushCheckBox.setSelected(GitMultiMergeSettings.getInstance(project).getState().atomicPush);
+        atomicPushCheckBox.setToolTipText(MessageBundle.message("options.atomic.push.tooltip"));
+        pushAfterMergeCheckBox.addActionListener(
+                e -> atomicPushCheckBox.setEnabled(pushAfterMergeCheckBox.isSelected()));
+        optConstraints.gridy = 3;
+        optionsPanel.add(atomicPushCheckBox, optConstraints);
+
+        reuseResolutionsCheckBox = new JBCheckBox(MessageBundle.message("options.reuse.resolutions"));
+        reuseResolutionsCheckBox.setSelected(
+                GitMultiMergeSettings.getInstance(project).getState().reuseResolutions);
+        reuseResolutionsCheckBox.setToolTipText(MessageBundle.message("options.reuse.resolutions.tooltip"));
+        optConstraints.gridy = 4;
+        optionsPanel.add(reuseResolutionsCheckBox, optConstraints);
+
         JPanel commitMessagePanel = new JPanel(new BorderLayout(5, 2));
         commitMessagePanel.add(new JBLabel(MessageBundle.message("options.commit.message")), BorderLayout.NORTH);
         mergeCommitMessageField = new JBTextField();
         mergeCommitMessageField.setEnabled(true);
         commitMessagePanel.add(mergeCommitMessageField, BorderLayout.CENTER);
 
-        optConstraints.gridy = 3;
+        optConstraints.gridy = 5;
+        optionsPanel.add(createExecutionPanel(), optConstraints);
+
+        optConstraints.gridy = 6;
         optConstraints.insets = JBUI.insets(5, 2, 2, 2);
         optionsPanel.add(commitMessagePanel, optConstraints);
 
         return optionsPanel;
     }
 
+    /**
+     * Cria o painel de escolha do modo de execução e do limite de paralelismo,
+     * preenchido com as últimas opções usadas no projeto.
+     */
+    private JPanel createExecutionPanel() {
+        GitMultiMergeSettings.State settings = GitMultiMergeSettings.getInstance(project).getState();
+
+        executionModeComboBox = new ComboBox<>(MergeExecutionMode.values());
+        executionModeComboBox.setRenderer(SimpleListCellRenderer.create("", MergeExecutionMode::getDisplayName));
+        executionModeComboBox.setSelectedItem(settings.executionMode);
+
+        parallelTargetsSpinner = new JBIntSpinner(
+                GitMultiMergeSettings.getInstance(project).getMaxParallelTargets(),
+                1, GitMultiMergeSettings.MAX_PARALLEL_TARGETS_LIMIT);
+        executionModeComboBox.addActionListener(e -> updateParallelTargetsSpinner());
+        updateParallelTargetsSpinner();
+
+        JPanel executionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        executionPanel.add(new JBLabel(MessageBundle.message("options.execution.mode")));
+        executionPanel.add(executionModeComboBox);
+        executionPanel.add(new JBLabel(MessageBundle.message("options.parallel.targets")));
+        executionPanel.add(parallelTargetsSpinner);
+        return executionPanel;
+    }
+
+    private void updateParallelTargetsSpinner() {
+        MergeExecutionMode mode = (MergeExecutionMode) executionModeComboBox.getSelectedItem();
+        parallelTargetsSpinner.setEnabled(mode != null && mode.usesWorktrees());
+    }
+
+    /**
+     * Guarda as opções de execução escolhidas para serem usadas pelo serviço.
+     */
+    private void saveExecutionSettings() {
+        GitMultiMergeSettings.State settings = GitMultiMergeSettings.getInstance(project).getState();
+        settings.executionMode = (MergeExecutionMode) executionModeComboBox.getSelectedItem();
+        settings.maxParallelTargets = parallelTargetsSpinner.getNumber();
+        settings.atomicPush = atomicPushCheckBox.isSelected();
+        settings.reuseResolutions = reuseResolutionsCheckBox.isSelected();
+    }
+
+    /**
+     * Habilita o OK quando há targets e repositórios selecionados e nenhum aviso.
+     */
+    private void updateOKAction() {
+        if (branchTreePanel == null) {
+            setOKActionEnabled(false);
+            return;
+        }
+        List<String> selected = branchTreePanel.getSelectedBranches();
+        boolean hasSelectedLeaf = selected != null && !selected.isEmpty();
+        predictAction.setEnabled(hasSelectedLeaf && !getSelectedRepositories().isEmpty());
+        boolean warningExists = sourceBranchPanel.hasWarning();
+        setOKActionEnabled(hasSelectedLeaf && !warningExists && !getSelectedRepositories().isEmpty());
+    }
+
     /**
      * Verifica se a branch source selecionada tenha alterações não enviadas de
-     * forma assíncrona.
-     * Esta abordagem evita bloquear a EDT.
+     * forma assíncrona, em todos os repositórios selecionados.
+     * Esta abordagem evita bloquear a EDT. Roda em paralelo com o carregamento
+     * das branches; o resultado é aplicado quando o painel source existir.
      */
     private void checkSourceBranchUncommittedChangesAsync() {
         setOKActionEnabled(false);
-        sourceBranchPanel.clearWarning();
+        uncommittedChanges = null;
+        if (sourceBranchPanel != null) {
+            sourceBranchPanel.clearWarning();
+        }
+        List<GitRepository> selectedRepositories = getSelectedRepositories();
         CompletableFuture<Boolean> validationFuture = CompletableFuture.supplyAsync(() -> {
             try {
-                return gitService.hasUncommittedChanges(repository);
+                return selectedRepositories.stream().anyMatch(gitService::hasUncommittedChanges);
             } catch (Exception e) {
                 return true;
             }
         });
         validationFuture.thenAcceptAsync(hasChanges -> {
-            if (hasChanges) {
-                String msg = MessageBundle.message("error.source.uncommitted.changes.message");
-                sourceBranchPanel.setWarning("<html>" + msg.replace("\\n", "<br>") + "</html>");
-                setOKActionEnabled(false);
-            } else {
-                sourceBranchPanel.clearWarning();
-            }
+            uncommittedChanges = hasChanges;
+            updateSourceWarning();
         }, SwingUtilities::invokeLater);
     }
 
+    /**
+     * Aplica o resultado da verificação de alterações não enviadas ao painel source.
+     */
+    private void updateSourceWarning() {
+        if (sourceBranchPanel == null || uncommittedChanges == null) {
+            return;
+        }
+        if (uncommittedChanges) {
+            String msg = MessageBundle.message("error.source.uncommitted.changes.message");
+            sourceBranchPanel.setWarning("<html>" + msg.replace("\\n", "<br>") + "</html>");
+            setOKActionEnabled(false);
+        } else {
+            sourceBranchPanel.clearWarning();
+            updateOKAction();
+        }
+    }
+
     /**
      * Atualiza a árvore de branches target com base na branch source selecionada e
      * texto de busca. Expande apenas os grupos relevantes.
@@ -180,6 +404,68 @@ public class GitMultiMergeDialog extends DialogWrapper {
     private void updateTargetTree() {
         String sourceBranch = sourceBranchPanel.getSelectedBranch();
         branchTreePanel.setSourceBranch(sourceBranch);
+        loadBranchMetadataAsync(sourceBranch);
+    }
+
+    /**
+     * Carrega em background, para a source informada, os commits em falta e a data
+     * do último commit de cada branch. Resultados de uma source que já não está
+     * selecionada são descartados.
+     */
+    private void loadBranchMetadataAsync(String sourceBranch) {
+        CompletableFuture.supplyAsync(() -> gitService.getBranchMetadata(repositories, sourceBranch))
+                .whenCompleteAsync((metadata, error) -> {
+                    if (isDisposed() || !Objects.equals(sourceBranch, sourceBranchPanel.getSelectedBranch())) {
+                        return;
+                    }
+                    if (error != null) {
+                        LOG.warn("Unable to load branch metadata", error);
+                    }
+                    branchTreePanel.setBranchMetadata(metadata != null ? metadata : Map.of());
+                }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Prevê em background, com merges de teste sem checkout, o resultado do merge
+     * da source em cada target selecionada, e marca as targets na árvore.
+     */
+    private void predictConflictsAsync() {
+        String sourceBranch = sourceBranchPanel.getSelectedBranch();
+        List<String> targetBranches = getSelectedTargetBranches();
+        List<GitRepository> selectedRepositories = getSelectedRepositories();
+        int maxParallel = parallelTargetsSpinner.getNumber();
+        if (predictionIndicator != null) {
+            predictionIndicator.cancel();
+        }
+        ProgressIndicator indicator = new EmptyProgressIndicator();
+        predictionIndicator = indicator;
+        CompletableFuture.supplyAsync(() -> ProgressManager.getInstance().runProcess(
+                () -> gitService.predictMerges(selectedRepositories, sourceBranch, targetBranches, maxParallel,
+                        indicator), indicator))
+                .whenCompleteAsync((predictions, error) -> {
+                    if (isDisposed() || indicator.isCanceled()
+                            || !Objects.equals(sourceBranch, sourceBranchPanel.getSelectedBranch())) {
+                        return;
+                    }
+                    if (error != null) {
+                        LOG.warn("Unable to predict merge conflicts", error);
+                        return;
+                    }
+                    branchTreePanel.addPredictions(predictions);
+                }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Cancela a previsão em andamento e remove as exibidas, feitas para outro
+     * conjunto de repositórios.
+     */
+    private void resetPredictions() {
+        if (predictionIndicator != null) {
+            predictionIndicator.cancel();
+        }
+        if (branchTreePanel != null) {
+            branchTreePanel.clearPredictions();
+        }
     }
 
     /**
@@ -196,7 +482,7 @@ public class GitMultiMergeDialog extends DialogWrapper {
     @Override
     protected void doOKAction() {
         String sourceBranch = sourceBranchPanel.getSelectedBranch();
-        if (!allBranchNames.contains(sourceBranch)) {
+        if (!branchIndex.contains(sourceBranch)) {
             Messages.showErrorDialog(project, MessageBundle.message("error.no.source"),
                     MessageBundle.message("dialog.title"));
             return;
@@ -228,13 +514,15 @@ public class GitMultiMergeDialog extends DialogWrapper {
         boolean deleteSource = deleteSourceCheckBox.isSelected();
         boolean pushAfterMerge = pushAfterMergeCheckBox.isSelected();
         String mergeMessage = mergeCommitMessageField.getText();
+        List<GitRepository> selectedRepositories = getSelectedRepositories();
+        saveExecutionSettings();
 
         ProgressManager.getInstance()
                 .run(new Task.Backgroundable(project, MessageBundle.message("dialog.title"), true) {
                     @Override
                     public void run(@NotNull ProgressIndicator indicator) {
                         CompletableFuture<Boolean> future = gitService.performMerge(
-                                repository,
+                                selectedRepositories,
                                 sourceBranch,
                                 targetBranches,
                                 squash,
@@ -1,5 +1,6 @@
 package com.plugin.gitmultimerge.ui;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.ui.ComboBox;
 import com.intellij.ui.ComboboxSpeedSearch;
 import com.intellij.ui.JBColor;
@@ -10,6 +11,7 @@ import com.plugin.gitmultimerge.util.MessageBundle;
 import javax.swing.*;
 import javax.swing.event.PopupMenuEvent;
 import javax.swing.event.PopupMenuListener;
+import javax.swing.plaf.basic.ComboPopup;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
@@ -20,19 +22,33 @@ import java.util.List;
  * aviso.
  */
 public class SourceBranchPanel extends JPanel {
+    /** Valor usado para dimensionar o ComboBox e as linhas do popup. */
+    private static final String PROTOTYPE_BRANCH = "feature/a-reasonably-long-branch-name";
+
     private final ComboBox<String> sourceBranchComboBox;
+    private final BranchListModel branchListModel;
     private final JBLabel warningLabel;
     private final List<String> allBranchNames;
+    private final BranchIndex branchIndex;
+    private final BranchSearchScheduler searchScheduler;
     private final String currentBranch;
 
-    public SourceBranchPanel(List<String> allBranchNames, String currentBranch, Runnable onBranchChanged) {
+    public SourceBranchPanel(BranchIndex branchIndex, String currentBranch, Runnable onBranchChanged,
+            Disposable parentDisposable) {
         super(new BorderLayout(0, 5));
-        this.allBranchNames = allBranchNames;
+        this.branchIndex = branchIndex;
+        this.allBranchNames = branchIndex.names();
+        this.searchScheduler = new BranchSearchScheduler(parentDisposable);
         this.currentBranch = currentBranch;
         add(new JBLabel(MessageBundle.message("source.branch.label")), BorderLayout.NORTH);
 
-        DefaultComboBoxModel<String> originalModel = new DefaultComboBoxModel<>(allBranchNames.toArray(new String[0]));
-        sourceBranchComboBox = new ComboBox<>(originalModel);
+        branchListModel = new BranchListModel(allBranchNames);
+        sourceBranchComboBox = new ComboBox<>(branchListModel);
+        // Largura e altura fixas: o ComboBox e a lista do popup não medem cada branch
+        sourceBranchComboBox.setPrototypeDisplayValue(PROTOTYPE_BRANCH);
+        if (sourceBranchComboBox.getUI().getAccessibleChild(sourceBranchComboBox, 0) instanceof ComboPopup popup) {
+            popup.getList().setPrototypeCellValue(PROTOTYPE_BRANCH);
+        }
         setBranch(currentBranch);
         installSpeedSearch();
         addKeyListener();
@@ -50,7 +66,7 @@ public class SourceBranchPanel extends JPanel {
     }
 
     public void setBranch(String branch) {
-        if (branch != null && allBranchNames.contains(branch)) {
+        if (branchIndex.contains(branch)) {
             sourceBranchComboBox.setSelectedItem(branch);
         } else {
             sourceBranchComboBox.setSelectedItem(currentBranch);
@@ -94,14 +110,10 @@ public class SourceBranchPanel extends JPanel {
                 SwingUtilities.invokeLater(() -> {
                     SpeedSearchSupply supply = SpeedSearchSupply.getSupply(sourceBranchComboBox);
                     String texto = supply != null ? supply.getEnteredPrefix() : null;
-                    DefaultComboBoxModel<String> model = (DefaultComboBoxModel<String>) sourceBranchComboBox.getModel();
                     if (texto != null && !texto.isEmpty()) {
-                        model.removeAllElements();
-                        for (String branch : allBranchNames) {
-                            if (branch.contains(texto)) {
-                                model.addElement(branch);
-                            }
-                        }
+                        // A busca roda em background; só o último resultado chega ao modelo
+                        searchScheduler.schedule(cancelled -> branchIndex.search(texto, cancelled),
+                                branchListModel::setItems);
                     }
                 });
             }
@@ -116,11 +128,10 @@ public class SourceBranchPanel extends JPanel {
 
             @Override
             public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+                searchScheduler.cancel();
                 SwingUtilities.invokeLater(() -> {
                     String branch = sourceBranchComboBox.getEditor().getItem().toString();
-                    DefaultComboBoxModel<String> model = (DefaultComboBoxModel<String>) sourceBranchComboBox.getModel();
-                    model.removeAllElements();
-                    model.addAll(allBranchNames);
+                    branchListModel.setItems(allBranchNames);
                     setBranch(branch);
                 });
             }
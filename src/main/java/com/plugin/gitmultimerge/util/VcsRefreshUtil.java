@@ -1,8 +1,11 @@
 package com.plugin.gitmultimerge.util;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vcs.FilePath;
 import com.intellij.openapi.vcs.changes.VcsDirtyScopeManager;
 
+import java.util.Collection;
+
 /**
  * Utility class to force a refresh of the VCS state and the Commit panel in IntelliJ IDEA.
  * This ensures that all changes and statuses are visually updated for the user after Git operations.
@@ -16,4 +19,15 @@ public class VcsRefreshUtil {
     public static void refreshVcsAndCommitPanel(Project project) {
         VcsDirtyScopeManager.getInstance(project).markEverythingDirty();
     }
+
+    /**
+     * Refreshes only the given paths instead of the whole project.
+     *
+     * @param project     the IntelliJ project instance
+     * @param files       files whose VCS status may have changed
+     * @param directories directories refreshed recursively
+     */
+    public static void markDirty(Project project, Collection<FilePath> files, Collection<FilePath> directories) {
+        VcsDirtyScopeManager.getInstance(project).filePathsDirty(files, directories);
+    }
 } 
\ No newline at end of file